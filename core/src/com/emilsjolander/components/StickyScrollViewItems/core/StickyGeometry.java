@@ -0,0 +1,78 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+/**
+ * Sticky view math shared by {@code StickyScrollView} and {@code StickyHorizontalScrollView}.
+ * All values are pixel positions along the scrolling axis: a start is a top for vertical scrolling
+ * and a left for horizontal scrolling, and view starts are relative to the scroll view's only child.
+ */
+public final class StickyGeometry {
+
+	private StickyGeometry() {
+	}
+
+	/**
+	 * @return position of a view's start relative to the edge views stick to
+	 */
+	public static int getPositionInViewport(int viewStart, int scroll, int padding) {
+		return viewStart - scroll + padding;
+	}
+
+	public static boolean isStuck(int viewStart, int scroll, int padding, int stickOffset) {
+		return getPositionInViewport(viewStart, scroll, padding) <= stickOffset;
+	}
+
+	/**
+	 * @return translation that keeps a stuck view at its stick offset
+	 */
+	public static int getStickTranslation(int viewStart, int scroll, int padding, int stickOffset) {
+		return padding - viewStart + scroll + stickOffset;
+	}
+
+	/**
+	 * Computes the stick offsets of stacked views: each one sticks below the ones before it.
+	 *
+	 * @param firstOffset stick offset of the first stacked view
+	 * @param sizes       sizes of the stacked views, in stacking order
+	 * @param offsets     receives the stick offset of each stacked view
+	 * @return total size of the stacked views
+	 */
+	public static int getStackedOffsets(int firstOffset, int[] sizes, int[] offsets) {
+		int offset = firstOffset;
+		for (int i = 0; i < sizes.length; i++) {
+			offsets[i] = offset;
+			offset += sizes[i];
+		}
+		return offset - firstOffset;
+	}
+
+	/**
+	 * @return translation that keeps a footer at the far edge of the viewport, minus its offset,
+	 * while its natural position is beyond it, and 0 otherwise
+	 */
+	public static int getFooterTranslation(int footerStart, int footerSize, int scroll, int padding,
+	                                       int viewportSize, int footerOffset) {
+		final int edge = viewportSize - footerOffset;
+		final int footerEnd = getPositionInViewport(footerStart, scroll, padding) + footerSize;
+		return footerEnd > edge ? edge - footerEnd : 0;
+	}
+
+	/**
+	 * @return alpha of a shadow that fades in while content scrolls under the stuck view, opaque
+	 * once it has moved by the size of the shadow
+	 */
+	public static int getShadowAlpha(int scrolledUnder, int shadowSize) {
+		if (shadowSize <= 0 || scrolledUnder >= shadowSize) {
+			return 255;
+		}
+		return Math.max(0, scrolledUnder) * 255 / shadowSize;
+	}
+
+	/**
+	 * @return true if a fling moving forward has reached the end of the outer range and should
+	 * continue in the inner content
+	 */
+	public static boolean shouldFlingContent(int scroll, int oldScroll, int scrollRange) {
+		return scroll > oldScroll && scroll >= scrollRange;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+/**
+ * Rules deciding when a gesture moves between the outer sticky scroll view and its content view.
+ * Like {@link StickyGeometry} they work on plain positions along the scrolling axis, so the
+ * views only supply the values and act on the result.
+ */
+public final class StickyHandoff {
+
+	/**
+	 * Offset reported by content views that have no secondary offset.
+	 */
+	public static final int NO_OFFSET = -1;
+
+	/**
+	 * No content view should take over the drag.
+	 */
+	public static final int DRAG_NONE = 0;
+
+	/**
+	 * The drag moves forward, any content view under the touch can take it over.
+	 */
+	public static final int DRAG_FORWARD = 1;
+
+	/**
+	 * The drag moves back, a content view that can scroll back can take it over.
+	 */
+	public static final int DRAG_BACK = -1;
+
+	private StickyHandoff() {
+	}
+
+	/**
+	 * @param position     scroll position of the content view
+	 * @param oldPosition  previous scroll position of the content view
+	 * @param offset       secondary offset of the content view, or {@link #NO_OFFSET}
+	 * @param oldOffset    previous secondary offset, or {@link #NO_OFFSET}
+	 * @return true if the content has moved back to its start, so that the rest of the scroll
+	 * belongs to the outer view
+	 */
+	public static boolean isContentBackAtStart(int position, int oldPosition, int offset, int oldOffset) {
+		return position <= oldPosition && position == 0 &&
+				((offset == NO_OFFSET && oldOffset == NO_OFFSET) || (offset > oldOffset && offset == 0));
+	}
+
+	/**
+	 * @return true if the outer view is being dragged forward past its end, so that the drag
+	 * should continue in the content
+	 */
+	public static boolean shouldRedirectDragToContent(int scroll, int oldScroll, boolean canScrollForward) {
+		return scroll > oldScroll && !canScrollForward;
+	}
+
+	/**
+	 * Decides which content view may take over a drag that started while the outer view was at
+	 * its end.
+	 *
+	 * @param delta distance moved since the touch went down, positive when moving forward
+	 * @return {@link #DRAG_FORWARD}, {@link #DRAG_BACK} or {@link #DRAG_NONE} while within the slop
+	 */
+	public static int getInterceptDirection(float delta, int touchSlop) {
+		if (delta > 0 && delta > touchSlop) {
+			return DRAG_FORWARD;
+		} else if (delta < 0 && delta < -touchSlop) {
+			return DRAG_BACK;
+		}
+		return DRAG_NONE;
+	}
+
+	/**
+	 * Maps the final position of a fling onto the combined range of the outer view and the
+	 * content: past the outer range, the content's own scroll is added.
+	 */
+	public static int getCombinedPosition(int finalPosition, int scrollRange, int contentScroll) {
+		return finalPosition >= scrollRange ? finalPosition + contentScroll : finalPosition;
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * In-process timeline of trace sections and counters that can be exported in the Chrome trace
+ * event format, for chrome://tracing or Perfetto. Events go into preallocated arrays, and once
+ * they are full further events are counted as dropped. Names are kept by reference, so pass
+ * constant strings.
+ */
+public final class TimelineRecorder {
+
+	private static final byte TYPE_BEGIN = 0;
+	private static final byte TYPE_END = 1;
+	private static final byte TYPE_COUNTER = 2;
+
+	private final long[] times;
+	private final long[] threadIds;
+	private final byte[] types;
+	private final String[] names;
+	private final long[] values;
+	private int size;
+	private int droppedCount;
+
+	public TimelineRecorder(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		times = new long[capacity];
+		threadIds = new long[capacity];
+		types = new byte[capacity];
+		names = new String[capacity];
+		values = new long[capacity];
+	}
+
+	public void begin(long timeNanos, String name) {
+		add(timeNanos, TYPE_BEGIN, name, 0);
+	}
+
+	public void end(long timeNanos) {
+		add(timeNanos, TYPE_END, null, 0);
+	}
+
+	public void counter(long timeNanos, String name, long value) {
+		add(timeNanos, TYPE_COUNTER, name, value);
+	}
+
+	private void add(long timeNanos, byte type, String name, long value) {
+		if (size == times.length) {
+			droppedCount++;
+			return;
+		}
+		times[size] = timeNanos;
+		threadIds[size] = Thread.currentThread().getId();
+		types[size] = type;
+		names[size] = name;
+		values[size] = value;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of events not recorded because the timeline was full
+	 */
+	public int getDroppedCount() {
+		return droppedCount;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			names[i] = null;
+		}
+		size = 0;
+		droppedCount = 0;
+	}
+
+	/**
+	 * Writes the recorded events as a Chrome trace JSON object.
+	 */
+	public void writeChromeTrace(Appendable out) throws IOException {
+		out.append("{\"traceEvents\":[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append("\n{\"ph\":\"");
+			switch (types[i]) {
+				case TYPE_BEGIN:
+					out.append('B');
+					break;
+				case TYPE_END:
+					out.append('E');
+					break;
+				default:
+					out.append('C');
+					break;
+			}
+			out.append("\",\"ts\":").append(String.valueOf(times[i] / 1000)).append('.');
+			final long nanos = times[i] % 1000;
+			out.append(nanos < 10 ? "00" : nanos < 100 ? "0" : "").append(String.valueOf(nanos));
+			out.append(",\"pid\":1,\"tid\":").append(String.valueOf(threadIds[i]));
+			if (names[i] != null) {
+				out.append(",\"name\":\"");
+				appendEscaped(out, names[i]);
+				out.append('"');
+			}
+			if (types[i] == TYPE_COUNTER) {
+				out.append(",\"args\":{\"value\":").append(String.valueOf(values[i])).append('}');
+			}
+			out.append('}');
+		}
+		out.append("\n],\"displayTimeUnit\":\"ms\"}\n");
+	}
+
+	public void writeChromeTrace(File file) throws IOException {
+		final Writer writer = new FileWriter(file);
+		try {
+			writeChromeTrace(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	public String toChromeTrace() {
+		final StringBuilder builder = new StringBuilder();
+		try {
+			writeChromeTrace(builder);
+		} catch (IOException e) {
+			// StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
+		return builder.toString();
+	}
+
+	private static void appendEscaped(Appendable out, String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(' ');
+			} else {
+				out.append(c);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+/**
+ * Fixed-size ring buffer of recent state transitions. Recording stores primitives into
+ * preallocated arrays, so it can stay on in production and be dumped when a gesture misbehaves.
+ */
+public final class TransitionTrace {
+
+	private final long[] times;
+	private final byte[] fromStates;
+	private final byte[] toStates;
+	private int next;
+	private int size;
+
+	public TransitionTrace(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		times = new long[capacity];
+		fromStates = new byte[capacity];
+		toStates = new byte[capacity];
+	}
+
+	/**
+	 * @param time      timestamp of the transition, in any clock the caller uses consistently
+	 * @param fromState ordinal of the state left, below 128
+	 * @param toState   ordinal of the state entered, below 128
+	 */
+	public void record(long time, int fromState, int toState) {
+		times[next] = time;
+		fromStates[next] = (byte) fromState;
+		toStates[next] = (byte) toState;
+		next = (next + 1) % times.length;
+		if (size < times.length) {
+			size++;
+		}
+	}
+
+	/**
+	 * @return number of recorded transitions, at most the capacity
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index 0 for the oldest recorded transition
+	 */
+	public long getTime(int index) {
+		return times[position(index)];
+	}
+
+	public int getFromState(int index) {
+		return fromStates[position(index)];
+	}
+
+	public int getToState(int index) {
+		return toStates[position(index)];
+	}
+
+	public void clear() {
+		next = 0;
+		size = 0;
+	}
+
+	/**
+	 * @param stateNames names of the states by ordinal
+	 * @return one line per transition, oldest first, with its time relative to the newest one
+	 */
+	public String dump(String[] stateNames) {
+		final StringBuilder builder = new StringBuilder();
+		final long last = size > 0 ? getTime(size - 1) : 0;
+		for (int i = 0; i < size; i++) {
+			builder.append(getTime(i) - last).append("ms ")
+					.append(stateNames[getFromState(i)]).append(" -> ").append(stateNames[getToState(i)])
+					.append('\n');
+		}
+		return builder.toString();
+	}
+
+	private int position(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+		return (next - size + index + times.length) % times.length;
+	}
+
+}
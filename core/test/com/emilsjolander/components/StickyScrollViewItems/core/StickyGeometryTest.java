@@ -0,0 +1,90 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StickyGeometryTest {
+
+	@Test
+	public void positionInViewportFollowsScroll() {
+		assertEquals(300, StickyGeometry.getPositionInViewport(300, 0, 0));
+		assertEquals(100, StickyGeometry.getPositionInViewport(300, 200, 0));
+		assertEquals(120, StickyGeometry.getPositionInViewport(300, 200, 20));
+	}
+
+	@Test
+	public void viewSticksOnceItReachesTheOffset() {
+		assertFalse(StickyGeometry.isStuck(300, 249, 0, 50));
+		assertTrue(StickyGeometry.isStuck(300, 250, 0, 50));
+		assertTrue(StickyGeometry.isStuck(300, 400, 0, 50));
+		assertFalse(StickyGeometry.isStuck(300, 250, 10, 50));
+	}
+
+	@Test
+	public void stickTranslationKeepsViewAtOffset() {
+		assertEquals(0, StickyGeometry.getStickTranslation(300, 250, 0, 50));
+		assertEquals(150, StickyGeometry.getStickTranslation(300, 400, 0, 50));
+		final int translation = StickyGeometry.getStickTranslation(300, 400, 10, 50);
+		assertEquals(50, StickyGeometry.getPositionInViewport(300, 400, 10) + translation);
+	}
+
+	@Test
+	public void stackedViewsStickBelowEachOther() {
+		final int[] offsets = new int[3];
+		final int total = StickyGeometry.getStackedOffsets(60, new int[]{40, 30, 20}, offsets);
+		assertArrayEquals(new int[]{60, 100, 130}, offsets);
+		assertEquals(90, total);
+	}
+
+	@Test
+	public void noStackedViewsHaveNoSize() {
+		assertEquals(0, StickyGeometry.getStackedOffsets(60, new int[0], new int[0]));
+	}
+
+	@Test
+	public void stackedViewSticksAtItsOwnOffset() {
+		final int[] offsets = new int[2];
+		StickyGeometry.getStackedOffsets(50, new int[]{40, 30}, offsets);
+		// Second stacked view at 500 sticks 90 below the edge, after the first one.
+		assertFalse(StickyGeometry.isStuck(500, 409, 0, offsets[1]));
+		assertTrue(StickyGeometry.isStuck(500, 410, 0, offsets[1]));
+		assertEquals(offsets[1], StickyGeometry.getPositionInViewport(500, 600, 0)
+				+ StickyGeometry.getStickTranslation(500, 600, 0, offsets[1]));
+	}
+
+	@Test
+	public void footerPinnedWhileBelowTheEdge() {
+		// Footer 100 high at 1000 in a viewport of 800: its end is at 1100 when not scrolled.
+		assertEquals(-300, StickyGeometry.getFooterTranslation(1000, 100, 0, 0, 800, 0));
+		assertEquals(-320, StickyGeometry.getFooterTranslation(1000, 100, 0, 0, 800, 20));
+		assertEquals(-100, StickyGeometry.getFooterTranslation(1000, 100, 200, 0, 800, 0));
+	}
+
+	@Test
+	public void footerReleasedOnceInView() {
+		assertEquals(0, StickyGeometry.getFooterTranslation(1000, 100, 300, 0, 800, 0));
+		assertEquals(0, StickyGeometry.getFooterTranslation(1000, 100, 500, 0, 800, 0));
+	}
+
+	@Test
+	public void shadowFadesInOverItsSize() {
+		assertEquals(0, StickyGeometry.getShadowAlpha(0, 10));
+		assertEquals(0, StickyGeometry.getShadowAlpha(-5, 10));
+		assertEquals(127, StickyGeometry.getShadowAlpha(5, 10));
+		assertEquals(255, StickyGeometry.getShadowAlpha(10, 10));
+		assertEquals(255, StickyGeometry.getShadowAlpha(3, 0));
+	}
+
+	@Test
+	public void flingContinuesInContentAtTheEnd() {
+		assertTrue(StickyGeometry.shouldFlingContent(600, 590, 600));
+		assertFalse(StickyGeometry.shouldFlingContent(590, 580, 600));
+		assertFalse(StickyGeometry.shouldFlingContent(600, 610, 600));
+		assertFalse(StickyGeometry.shouldFlingContent(600, 600, 600));
+	}
+
+}
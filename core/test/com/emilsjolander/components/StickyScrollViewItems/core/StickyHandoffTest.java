@@ -0,0 +1,57 @@
+package com.emilsjolander.components.StickyScrollViewItems.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StickyHandoffTest {
+
+	private static final int NO_OFFSET = StickyHandoff.NO_OFFSET;
+
+	@Test
+	public void contentBackAtStartWithoutOffset() {
+		assertTrue(StickyHandoff.isContentBackAtStart(0, 20, NO_OFFSET, NO_OFFSET));
+		assertTrue(StickyHandoff.isContentBackAtStart(0, 0, NO_OFFSET, NO_OFFSET));
+	}
+
+	@Test
+	public void contentNotBackAtStartWhileAwayOrMovingForward() {
+		assertFalse(StickyHandoff.isContentBackAtStart(10, 20, NO_OFFSET, NO_OFFSET));
+		assertFalse(StickyHandoff.isContentBackAtStart(0, -5, NO_OFFSET, NO_OFFSET));
+	}
+
+	@Test
+	public void contentWithOffsetBackAtStartOnlyWhenOffsetReachesZero() {
+		// Lists report the first position and the top of its child as the offset.
+		assertTrue(StickyHandoff.isContentBackAtStart(0, 0, 0, -30));
+		assertFalse(StickyHandoff.isContentBackAtStart(0, 0, -10, -30));
+		assertFalse(StickyHandoff.isContentBackAtStart(0, 0, 0, 0));
+		assertFalse(StickyHandoff.isContentBackAtStart(0, 1, -30, 0));
+	}
+
+	@Test
+	public void dragRedirectedOnlyForwardPastTheEnd() {
+		assertTrue(StickyHandoff.shouldRedirectDragToContent(600, 590, false));
+		assertFalse(StickyHandoff.shouldRedirectDragToContent(590, 580, true));
+		assertFalse(StickyHandoff.shouldRedirectDragToContent(590, 600, false));
+	}
+
+	@Test
+	public void interceptDirectionOutsideTheSlop() {
+		assertEquals(StickyHandoff.DRAG_FORWARD, StickyHandoff.getInterceptDirection(9, 8));
+		assertEquals(StickyHandoff.DRAG_BACK, StickyHandoff.getInterceptDirection(-9, 8));
+		assertEquals(StickyHandoff.DRAG_NONE, StickyHandoff.getInterceptDirection(8, 8));
+		assertEquals(StickyHandoff.DRAG_NONE, StickyHandoff.getInterceptDirection(-8, 8));
+		assertEquals(StickyHandoff.DRAG_NONE, StickyHandoff.getInterceptDirection(0, 0));
+	}
+
+	@Test
+	public void combinedPositionAddsContentScrollPastTheOuterRange() {
+		assertEquals(300, StickyHandoff.getCombinedPosition(300, 600, 150));
+		assertEquals(750, StickyHandoff.getCombinedPosition(600, 600, 150));
+		assertEquals(600, StickyHandoff.getCombinedPosition(600, 600, 0));
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Stacks its children vertically, like a vertical LinearLayout without weights, and keeps the
+ * bottom of every child measured so far. When children are appended or one of them requests
+ * layout, only the children from the first changed one to the end are measured and laid out
+ * again, so appending to long content costs as much as the new children. Use it as the child
+ * of a {@link ContentScrollView} together with {@link ContentScrollView#appendContent(View...)}.
+ */
+public class AppendableContentLayout extends ViewGroup {
+
+	/**
+	 * Bottom of each child relative to the top padding, for the first {@link #measuredCount}
+	 * children. Gone children take no space.
+	 */
+	private int[] bottoms = new int[16];
+	private int measuredCount;
+	private int measuredWidthSpec;
+	private int measuredPaddingLeft;
+	private int measuredPaddingTop;
+	private int measuredPaddingRight;
+
+	/**
+	 * Index of the first child whose bounds are out of date, and the width they were laid out in.
+	 */
+	private int layoutFrom;
+	private int layoutWidth = -1;
+
+	public AppendableContentLayout(Context context) {
+		super(context);
+	}
+
+	public AppendableContentLayout(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public AppendableContentLayout(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+	}
+
+	/**
+	 * @return the offset of the top of a child from the top of this view, valid after measure
+	 */
+	public int getChildOffset(int index) {
+		return getPaddingTop() + (index > 0 ? bottoms[index - 1] : 0);
+	}
+
+	@Override
+	public void onViewRemoved(View child) {
+		super.onViewRemoved(child);
+		// A removal shifts every later child, drop the stored bottoms from the gap on.
+		invalidateFrom(indexOfChild(child));
+	}
+
+	@Override
+	public void onViewAdded(View child) {
+		super.onViewAdded(child);
+		invalidateFrom(indexOfChild(child));
+	}
+
+	private void invalidateFrom(int index) {
+		measuredCount = Math.min(measuredCount, Math.max(0, index));
+		layoutFrom = Math.min(layoutFrom, measuredCount);
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		final int count = getChildCount();
+		int from = widthMeasureSpec == measuredWidthSpec && getPaddingLeft() == measuredPaddingLeft
+				&& getPaddingTop() == measuredPaddingTop && getPaddingRight() == measuredPaddingRight ?
+				Math.min(measuredCount, count) : 0;
+		// Gone children are checked too, a change in visibility requests layout on the child.
+		for (int i = 0; i < from; i++) {
+			if (getChildAt(i).isLayoutRequested()) {
+				from = i;
+				break;
+			}
+		}
+		// The widest child may be among those measured again and have shrunk, so the width is
+		// taken from the kept measurements rather than carried over.
+		int maxChildWidth = 0;
+		for (int i = 0; i < from; i++) {
+			final View child = getChildAt(i);
+			if (child.getVisibility() != View.GONE) {
+				final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+				maxChildWidth = Math.max(maxChildWidth,
+						lp.leftMargin + child.getMeasuredWidth() + lp.rightMargin);
+			}
+		}
+		if (bottoms.length < count) {
+			int[] newBottoms = new int[Math.max(count, bottoms.length * 2)];
+			System.arraycopy(bottoms, 0, newBottoms, 0, from);
+			bottoms = newBottoms;
+		}
+
+		int bottom = from > 0 ? bottoms[from - 1] : 0;
+		for (int i = from; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child.getVisibility() != View.GONE) {
+				final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+				measureChildWithMargins(child, widthMeasureSpec, 0, MeasureSpec.makeMeasureSpec(0,
+						MeasureSpec.UNSPECIFIED), 0);
+				bottom += lp.topMargin + child.getMeasuredHeight() + lp.bottomMargin;
+				maxChildWidth = Math.max(maxChildWidth,
+						lp.leftMargin + child.getMeasuredWidth() + lp.rightMargin);
+			}
+			bottoms[i] = bottom;
+		}
+		measuredCount = count;
+		measuredWidthSpec = widthMeasureSpec;
+		measuredPaddingLeft = getPaddingLeft();
+		measuredPaddingTop = getPaddingTop();
+		measuredPaddingRight = getPaddingRight();
+		layoutFrom = Math.min(layoutFrom, from);
+
+		final int width = Math.max(maxChildWidth + getPaddingLeft() + getPaddingRight(),
+				getSuggestedMinimumWidth());
+		final int height = Math.max(bottom + getPaddingTop() + getPaddingBottom(),
+				getSuggestedMinimumHeight());
+		setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+				resolveSize(height, heightMeasureSpec));
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		final int count = Math.min(getChildCount(), measuredCount);
+		// Children are top aligned, so a change in height alone moves none of them.
+		final int from = r - l != layoutWidth ? 0 : layoutFrom;
+		layoutWidth = r - l;
+		for (int i = from; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child.getVisibility() == View.GONE) {
+				continue;
+			}
+			final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+			final int left = getPaddingLeft() + lp.leftMargin;
+			final int top = getChildOffset(i) + lp.topMargin;
+			child.layout(left, top, left + child.getMeasuredWidth(), top + child.getMeasuredHeight());
+		}
+		layoutFrom = count;
+	}
+
+	@Override
+	protected LayoutParams generateDefaultLayoutParams() {
+		return new MarginLayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+	}
+
+	@Override
+	public LayoutParams generateLayoutParams(AttributeSet attrs) {
+		return new MarginLayoutParams(getContext(), attrs);
+	}
+
+	@Override
+	protected LayoutParams generateLayoutParams(LayoutParams p) {
+		return p instanceof MarginLayoutParams ? new MarginLayoutParams((MarginLayoutParams) p) :
+				new MarginLayoutParams(p);
+	}
+
+	@Override
+	protected boolean checkLayoutParams(LayoutParams p) {
+		return p instanceof MarginLayoutParams;
+	}
+
+}
@@ -0,0 +1,363 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.support.v4.view.ViewCompat;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.OverScroller;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+
+/**
+ * Content side of the sticky handoff for widgets that do not scroll through {@link ScrollViewEx}.
+ * The widget keeps its own touch handling; this class tracks the touches it sees, reports its
+ * scrolls to the {@link StickyScrollView}, and drives a drag or fling handed over by it through
+ * the widget's native scroll and fling calls. An {@link OverScroller} mirrors each fling to know
+ * its velocity and end, which the widgets keep private.
+ */
+abstract class ContentHandoffHelper {
+
+	private static final int INVALID_POINTER = -1;
+
+	/**
+	 * Constants of the spline fling curve used by {@link OverScroller}, to derive the duration of
+	 * a fling from its velocity.
+	 */
+	private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+	private static final float INFLEXION = 0.35f;
+	private static final float GRAVITY_EARTH = 9.80665f;
+	private static final float INCHES_PER_METER = 39.37f;
+
+	private final View view;
+	private final OverScroller flingTracker;
+	private final int minimumVelocity;
+	private final int maximumVelocity;
+	private final float flingDeceleration;
+
+	private StickyMainContentScrollListener listener;
+	private VelocityTracker velocityTracker;
+	private int activePointerId = INVALID_POINTER;
+	private float lastMotionY;
+	private boolean isTouching;
+	private boolean isHandedDrag;
+	private int flingDirection;
+	private int flingVelocity;
+	private int scrollState = OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+
+	private final Runnable settleCheck = new Runnable() {
+		@Override
+		public void run() {
+			if (scrollState != OnScrollStateChangedListener.SCROLL_STATE_SETTLING) {
+				return;
+			}
+			if (flingTracker.computeScrollOffset() && view.canScrollVertically(flingDirection)) {
+				ViewCompat.postOnAnimation(view, this);
+			} else {
+				flingTracker.forceFinished(true);
+				setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+			}
+		}
+	};
+
+	ContentHandoffHelper(View view) {
+		this.view = view;
+		flingTracker = new OverScroller(view.getContext());
+		final ScrollConfiguration configuration = ScrollConfiguration.get(view.getContext());
+		minimumVelocity = configuration.minimumFlingVelocity;
+		maximumVelocity = configuration.maximumFlingVelocity;
+		final float ppi = view.getResources().getDisplayMetrics().density * 160f;
+		flingDeceleration = ViewConfiguration.getScrollFriction() * GRAVITY_EARTH * INCHES_PER_METER * ppi
+				* 0.84f;
+	}
+
+	/**
+	 * Scrolls the widget by the given pixels, positive towards the end.
+	 */
+	abstract void scrollContentBy(int dy);
+
+	/**
+	 * Starts a native fling, positive towards the end.
+	 */
+	abstract void flingContent(int velocityY);
+
+	abstract void stopContentFling();
+
+	abstract int getContentScrollOffset();
+
+	abstract int getContentScrollRange();
+
+	void setListener(StickyMainContentScrollListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Feeds a touch event the widget receives itself, before the widget handles it.
+	 */
+	void trackTouch(MotionEvent ev) {
+		final int action = ev.getActionMasked();
+		if (action == MotionEvent.ACTION_DOWN) {
+			stopFling();
+			isTouching = true;
+			activePointerId = ev.getPointerId(0);
+			if (velocityTracker == null) {
+				velocityTracker = VelocityTracker.obtain();
+			} else {
+				velocityTracker.clear();
+			}
+		}
+		if (velocityTracker != null) {
+			velocityTracker.addMovement(ev);
+		}
+		if (action == MotionEvent.ACTION_POINTER_UP) {
+			onSecondaryPointerUp(ev);
+		} else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+			isTouching = false;
+			if (velocityTracker != null && action == MotionEvent.ACTION_UP
+					&& scrollState == OnScrollStateChangedListener.SCROLL_STATE_DRAGGING) {
+				// The widget flings by itself, only the mirror is started here.
+				velocityTracker.computeCurrentVelocity(1000, maximumVelocity);
+				startFlingTracking((int) -velocityTracker.getYVelocity(activePointerId));
+			} else {
+				setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+			}
+			recycleVelocityTracker();
+		}
+	}
+
+	/**
+	 * Reports a scroll of the widget to the sticky scroll view.
+	 *
+	 * @param offset    secondary offset, or {@link StickyHandoff#NO_OFFSET}
+	 * @param oldOffset previous secondary offset, or {@link StickyHandoff#NO_OFFSET}
+	 */
+	void onScrollChanged(int position, int oldPosition, int offset, int oldOffset) {
+		final boolean dragging = isTouching || isHandedDrag;
+		if (dragging) {
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
+		}
+		if (listener == null) {
+			return;
+		}
+		if (dragging) {
+			listener.onScrollableScroll(view, position, oldPosition, offset, oldOffset);
+		} else {
+			listener.onScrollableFling(view, position, oldPosition, offset, oldOffset,
+					flingTracker.getCurrVelocity());
+		}
+	}
+
+	/**
+	 * Takes over a drag started in the sticky scroll view; the following events arrive through
+	 * {@link #onTranslatedTouchEvent(MotionEvent)}.
+	 */
+	void startScrollByEvents(VelocityTracker velocityTracker, MotionEvent prevEvent, MotionEvent event,
+	                         int pointerId) {
+		stopFling();
+		recycleVelocityTracker();
+		this.velocityTracker = velocityTracker;
+		activePointerId = pointerId;
+		final int prevIndex = pointerId != INVALID_POINTER ? prevEvent.findPointerIndex(pointerId) : -1;
+		lastMotionY = prevIndex >= 0 ? prevEvent.getY(prevIndex) : prevEvent.getY();
+		isHandedDrag = true;
+		setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
+		if (pointerId == INVALID_POINTER) {
+			endHandedDrag(event.getActionMasked() == MotionEvent.ACTION_UP);
+		} else {
+			handleHandedEvent(event);
+		}
+	}
+
+	/**
+	 * @return true if the event belonged to a handed over drag, false if the widget should handle it
+	 */
+	boolean onTranslatedTouchEvent(MotionEvent event) {
+		if (!isHandedDrag) {
+			trackTouch(event);
+			return false;
+		}
+		handleHandedEvent(event);
+		return true;
+	}
+
+	private void handleHandedEvent(MotionEvent ev) {
+		if (velocityTracker == null) {
+			velocityTracker = VelocityTracker.obtain();
+		}
+		velocityTracker.addMovement(ev);
+		switch (ev.getActionMasked()) {
+			case MotionEvent.ACTION_MOVE: {
+				final int index = ev.findPointerIndex(activePointerId);
+				if (index < 0) {
+					break;
+				}
+				final int dy = (int) (lastMotionY - ev.getY(index));
+				if (dy != 0) {
+					// Keep the fraction for the next move.
+					lastMotionY -= dy;
+					scrollContentBy(dy);
+				}
+				break;
+			}
+			case MotionEvent.ACTION_POINTER_DOWN: {
+				final int index = ev.getActionIndex();
+				lastMotionY = ev.getY(index);
+				activePointerId = ev.getPointerId(index);
+				break;
+			}
+			case MotionEvent.ACTION_POINTER_UP: {
+				onSecondaryPointerUp(ev);
+				final int index = ev.findPointerIndex(activePointerId);
+				if (index >= 0) {
+					lastMotionY = ev.getY(index);
+				}
+				break;
+			}
+			case MotionEvent.ACTION_UP:
+				endHandedDrag(true);
+				break;
+			case MotionEvent.ACTION_CANCEL:
+				endHandedDrag(false);
+				break;
+		}
+	}
+
+	private void endHandedDrag(boolean fling) {
+		isHandedDrag = false;
+		int velocity = 0;
+		if (fling && velocityTracker != null && activePointerId != INVALID_POINTER) {
+			velocityTracker.computeCurrentVelocity(1000, maximumVelocity);
+			velocity = (int) -velocityTracker.getYVelocity(activePointerId);
+		}
+		recycleVelocityTracker();
+		activePointerId = INVALID_POINTER;
+		if (Math.abs(velocity) > minimumVelocity) {
+			fling(velocity);
+		} else {
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+		}
+	}
+
+	private void onSecondaryPointerUp(MotionEvent ev) {
+		final int pointerIndex = ev.getActionIndex();
+		if (ev.getPointerId(pointerIndex) == activePointerId) {
+			final int newPointerIndex = pointerIndex == 0 ? 1 : 0;
+			activePointerId = ev.getPointerId(newPointerIndex);
+			if (velocityTracker != null) {
+				velocityTracker.clear();
+			}
+		}
+	}
+
+	/**
+	 * Flings the widget natively, positive towards the end.
+	 */
+	void fling(int velocityY) {
+		startFlingTracking(velocityY);
+		flingContent(velocityY);
+	}
+
+	private void startFlingTracking(int velocityY) {
+		if (velocityY == 0) {
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+			return;
+		}
+		flingDirection = velocityY > 0 ? 1 : -1;
+		flingVelocity = velocityY;
+		flingTracker.fling(0, getContentScrollOffset(), 0, velocityY, 0, 0, 0,
+				Math.max(0, getContentScrollRange()));
+		setScrollState(OnScrollStateChangedListener.SCROLL_STATE_SETTLING);
+		ViewCompat.postOnAnimation(view, settleCheck);
+		if (listener != null) {
+			listener.onScrollableFlingStarted(view, flingTracker.getFinalY());
+		}
+	}
+
+	void stopFling() {
+		if (scrollState == OnScrollStateChangedListener.SCROLL_STATE_SETTLING) {
+			stopContentFling();
+			flingTracker.forceFinished(true);
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+		}
+	}
+
+	/**
+	 * The sticky scroll view takes over the drag.
+	 */
+	void stopScroll() {
+		isHandedDrag = false;
+		setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+	}
+
+	boolean wheelScrollBy(int delta) {
+		if (delta == 0 || !view.canScrollVertically(delta > 0 ? 1 : -1)) {
+			return false;
+		}
+		stopFling();
+		scrollContentBy(delta);
+		return true;
+	}
+
+	VelocityTracker snatchVelocityTracker() {
+		final VelocityTracker tracker = velocityTracker;
+		velocityTracker = null;
+		return tracker;
+	}
+
+	int getActivePointerId() {
+		return activePointerId;
+	}
+
+	int getScrollState() {
+		return scrollState;
+	}
+
+	int getFlingFinalY() {
+		return flingTracker.getFinalY();
+	}
+
+	/**
+	 * @return distance of the mirrored fling, for widgets that emulate a fling with a timed scroll
+	 */
+	int getFlingDistance() {
+		return flingTracker.getFinalY() - flingTracker.getStartY();
+	}
+
+	/**
+	 * @return duration in milliseconds of the mirrored fling, by the same curve as the tracker
+	 */
+	int getFlingDuration() {
+		if (flingVelocity == 0) {
+			return 0;
+		}
+		final double l = Math.log(INFLEXION * Math.abs(flingVelocity) / flingDeceleration);
+		return (int) (1000.0 * Math.exp(l / (DECELERATION_RATE - 1.0)));
+	}
+
+	void release() {
+		view.removeCallbacks(settleCheck);
+		flingTracker.forceFinished(true);
+		recycleVelocityTracker();
+		isTouching = false;
+		isHandedDrag = false;
+		setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+	}
+
+	private void recycleVelocityTracker() {
+		if (velocityTracker != null) {
+			velocityTracker.recycle();
+			velocityTracker = null;
+		}
+	}
+
+	private void setScrollState(int scrollState) {
+		if (this.scrollState == scrollState) {
+			return;
+		}
+		this.scrollState = scrollState;
+		if (listener != null) {
+			listener.onScrollableScrollStateChanged(view, scrollState);
+		}
+	}
+
+}
@@ -4,11 +4,17 @@ import android.content.Context;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
+import android.view.View;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
 
 /**
  * Created by Shad on 20.10.14.
+ * <p/>
+ * With {@code android:orientation="horizontal"} it scrolls horizontally and is the content view
+ * of a {@link StickyHorizontalScrollView}.
  */
-public class ContentScrollView extends ScrollViewEx implements StickyContentView {
+public class ContentScrollView extends ScrollViewEx implements StickyContentViewEx {
 
 	public ContentScrollView(Context context) {
 		super(context);
@@ -27,22 +33,119 @@ public class ContentScrollView extends ScrollViewEx implements StickyContentView
 
 	}
 
+	@Override
+	protected void dispatchScrollStateChanged(int scrollState) {
+		super.dispatchScrollStateChanged(scrollState);
+		if (stickyMainContentScrollListener != null) {
+			stickyMainContentScrollListener.onScrollableScrollStateChanged(this, scrollState);
+		}
+	}
+
+	@Override
+	protected void dispatchFlingSettlePredicted(int finalPosition, int maxPosition) {
+		super.dispatchFlingSettlePredicted(finalPosition, maxPosition);
+		checkLoadMore(finalPosition);
+		if (stickyMainContentScrollListener != null) {
+			stickyMainContentScrollListener.onScrollableFlingStarted(this, finalPosition);
+		}
+	}
+
 	@Override
 	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
 		super.onScrollChanged(l, t, oldl, oldt);
+		final int position = isHorizontal() ? l : t;
+		final int oldPosition = isHorizontal() ? oldl : oldt;
+		checkLoadMore(position);
 		if (stickyMainContentScrollListener != null) {
 			if (mIsBeingDragged) {
-				stickyMainContentScrollListener.onScrollableScroll(this, t, oldt, -1, -1);
+				stickyMainContentScrollListener.onScrollableScroll(this, position, oldPosition, StickyHandoff.NO_OFFSET, StickyHandoff.NO_OFFSET);
 			} else {
-				stickyMainContentScrollListener.onScrollableFling(this, t, oldt,
-						-1, -1, getCurrentFlingVelocity());
+				stickyMainContentScrollListener.onScrollableFling(this, position, oldPosition,
+						StickyHandoff.NO_OFFSET, StickyHandoff.NO_OFFSET, getCurrentFlingVelocity());
 			}
 		}
 	}
 
 
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		super.onLayout(changed, l, t, r, b);
+		// Content shorter than the prefetch distance keeps asking until it is long enough. The
+		// check is posted so content appended by the listener is not added during layout.
+		if (onLoadMoreListener != null) {
+			removeCallbacks(loadMoreCheck);
+			post(loadMoreCheck);
+		}
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		removeCallbacks(loadMoreCheck);
+	}
+
+	private final Runnable loadMoreCheck = new Runnable() {
+		@Override
+		public void run() {
+			checkLoadMore(getScrollPosition());
+		}
+	};
+
 	private StickyMainContentScrollListener stickyMainContentScrollListener;
 
+	private OnLoadMoreListener onLoadMoreListener;
+	private int prefetchDistance;
+
+	/**
+	 * Content height the listener was last asked at, no request is made again until it changes.
+	 * The scroll range stays 0 while the content is shorter than the viewport, so it can't tell
+	 * whether appended content arrived.
+	 */
+	private int loadMoreHeight = -1;
+
+	/**
+	 * @param onLoadMoreListener the listener, or null to stop asking for content
+	 * @param prefetchDistance   how far from the end, in pixels, the scroll position or the
+	 *                           predicted end of a fling asks for more content
+	 */
+	public void setOnLoadMoreListener(OnLoadMoreListener onLoadMoreListener, int prefetchDistance) {
+		this.onLoadMoreListener = onLoadMoreListener;
+		this.prefetchDistance = prefetchDistance;
+		loadMoreHeight = -1;
+	}
+
+	public int getPrefetchDistance() {
+		return prefetchDistance;
+	}
+
+	private void checkLoadMore(int position) {
+		if (onLoadMoreListener == null) {
+			return;
+		}
+		final View child = getChildCount() > 0 ? getChildAt(0) : null;
+		final int height = child == null ? 0 : isHorizontal() ? child.getWidth() : child.getHeight();
+		if (height != loadMoreHeight && position + prefetchDistance >= getScrollRange()) {
+			loadMoreHeight = height;
+			onLoadMoreListener.onLoadMore(this);
+		}
+	}
+
+	/**
+	 * Adds views to the end of the content. Only the new views are measured and laid out.
+	 *
+	 * @param views the views to append
+	 * @throws IllegalStateException if the child of this view is not an {@link AppendableContentLayout}
+	 */
+	public void appendContent(View... views) {
+		if (getChildCount() == 0 || !(getChildAt(0) instanceof AppendableContentLayout)) {
+			throw new IllegalStateException("appendContent needs an AppendableContentLayout child");
+		}
+		final AppendableContentLayout content = (AppendableContentLayout) getChildAt(0);
+		for (View view : views) {
+			content.addView(view);
+		}
+	}
+
 	@Override
 	public void setStickyMainContentScrollListener(StickyMainContentScrollListener stickyMainContentScrollListener) {
 		this.stickyMainContentScrollListener = stickyMainContentScrollListener;
@@ -74,4 +177,14 @@ public class ContentScrollView extends ScrollViewEx implements StickyContentView
 		return onTouchEvent(event);
 	}
 
+	@Override
+	public int getContentScrollOffset() {
+		return getScrollPosition();
+	}
+
+	@Override
+	public void scrollContentBy(int dy) {
+		scrollAlongBy(dy);
+	}
+
 }
@@ -0,0 +1,162 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the touch events a {@link StickyScrollView} receives together with the scroll, fling
+ * and {@link StickyScrollView.TouchesState} changes they cause into a compact binary trace.
+ * <p/>
+ * Attach a recorder with {@link StickyScrollView#setGestureTraceListener(GestureTraceListener)}
+ * in a debug build, reproduce the gesture on a device, then save {@link #toByteArray()} or
+ * {@link #writeTo(OutputStream)}. The library's tests replay such traces as regression tests.
+ * Recording does not allocate except when the buffer has to grow.
+ */
+public class GestureRecorder implements GestureTraceListener {
+
+	static final int MAGIC = 0x53535654; // "SSVT"
+	static final int VERSION = 1;
+
+	static final byte RECORD_MOTION = 1;
+	static final byte RECORD_SCROLL = 2;
+	static final byte RECORD_CONTENT_SCROLL = 3;
+	static final byte RECORD_FLING = 4;
+	static final byte RECORD_STATE = 5;
+
+	private static final int INITIAL_CAPACITY = 4096;
+
+	private final boolean recordMotionEvents;
+
+	private byte[] buffer;
+	private int size;
+	private boolean recording = true;
+
+	public GestureRecorder() {
+		this(true);
+	}
+
+	GestureRecorder(boolean recordMotionEvents) {
+		this.recordMotionEvents = recordMotionEvents;
+		buffer = new byte[INITIAL_CAPACITY];
+		writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	public void setRecording(boolean recording) {
+		this.recording = recording;
+	}
+
+	public boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * Drops everything recorded so far.
+	 */
+	public void clear() {
+		size = 0;
+		writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public void onMotionEvent(MotionEvent event) {
+		if (!recording || !recordMotionEvents) {
+			return;
+		}
+		final int pointerCount = event.getPointerCount();
+		ensureCapacity(1 + 8 + 8 + 4 + 8 + 4 + pointerCount * 12);
+		writeByte(RECORD_MOTION);
+		writeLong(event.getEventTime());
+		writeLong(event.getDownTime());
+		writeInt(event.getAction());
+		// Offset between screen and view coordinates, restored on replay for getRawX/getRawY.
+		writeFloat(event.getRawX() - event.getX());
+		writeFloat(event.getRawY() - event.getY());
+		writeInt(pointerCount);
+		for (int i = 0; i < pointerCount; ++i) {
+			writeInt(event.getPointerId(i));
+			writeFloat(event.getX(i));
+			writeFloat(event.getY(i));
+		}
+	}
+
+	@Override
+	public void onScroll(int scroll, int oldScroll) {
+		recordValues(RECORD_SCROLL, scroll, oldScroll);
+	}
+
+	@Override
+	public void onContentScroll(int position, int oldPosition) {
+		recordValues(RECORD_CONTENT_SCROLL, position, oldPosition);
+	}
+
+	@Override
+	public void onFling(int velocity, int finalPosition) {
+		recordValues(RECORD_FLING, velocity, finalPosition);
+	}
+
+	@Override
+	public void onStateChange(int fromState, int toState) {
+		recordValues(RECORD_STATE, fromState, toState);
+	}
+
+	private void recordValues(byte kind, int first, int second) {
+		if (!recording) {
+			return;
+		}
+		ensureCapacity(1 + 8 + 4 + 4);
+		writeByte(kind);
+		writeLong(SystemClock.uptimeMillis());
+		writeInt(first);
+		writeInt(second);
+	}
+
+	public byte[] toByteArray() {
+		byte[] trace = new byte[size];
+		System.arraycopy(buffer, 0, trace, 0, size);
+		return trace;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(buffer, 0, size);
+	}
+
+	private void ensureCapacity(int extra) {
+		if (size + extra > buffer.length) {
+			byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+			System.arraycopy(buffer, 0, grown, 0, size);
+			buffer = grown;
+		}
+	}
+
+	private void writeByte(byte value) {
+		ensureCapacity(1);
+		buffer[size++] = value;
+	}
+
+	private void writeInt(int value) {
+		ensureCapacity(4);
+		buffer[size++] = (byte) (value >>> 24);
+		buffer[size++] = (byte) (value >>> 16);
+		buffer[size++] = (byte) (value >>> 8);
+		buffer[size++] = (byte) value;
+	}
+
+	private void writeLong(long value) {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void writeFloat(float value) {
+		writeInt(Float.floatToIntBits(value));
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.MotionEvent;
+
+/**
+ * Receives the touch events a {@link StickyScrollView} dispatches together with the scrolls,
+ * flings and {@link StickyScrollView.TouchesState} changes they cause, for example to record a
+ * gesture and replay it in a test.
+ */
+public interface GestureTraceListener {
+
+	public void onMotionEvent(MotionEvent event);
+
+	public void onScroll(int scroll, int oldScroll);
+
+	public void onContentScroll(int position, int oldPosition);
+
+	public void onFling(int velocity, int finalPosition);
+
+	public void onStateChange(int fromState, int toState);
+
+}
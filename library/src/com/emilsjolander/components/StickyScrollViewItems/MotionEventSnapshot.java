@@ -0,0 +1,98 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.MotionEvent;
+
+/**
+ * Reusable copy of the pointers and timing of a {@link MotionEvent}. Taking a snapshot does not
+ * allocate once the arrays have grown to the number of pointers in use; a real event is only
+ * obtained when one is needed.
+ */
+final class MotionEventSnapshot {
+
+	private MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+	private MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+
+	private boolean isSet;
+	private int pointerCount;
+	private long downTime;
+	private long eventTime;
+	private int action;
+	private int metaState;
+	private int buttonState;
+	private float xPrecision;
+	private float yPrecision;
+	private int deviceId;
+	private int edgeFlags;
+	private int source;
+	private int flags;
+	private float rawOffsetX;
+	private float rawOffsetY;
+
+	void set(MotionEvent event) {
+		pointerCount = event.getPointerCount();
+		if (properties.length < pointerCount) {
+			final int oldLength = properties.length;
+			MotionEvent.PointerProperties[] grownProperties = new MotionEvent.PointerProperties[pointerCount];
+			MotionEvent.PointerCoords[] grownCoords = new MotionEvent.PointerCoords[pointerCount];
+			System.arraycopy(properties, 0, grownProperties, 0, oldLength);
+			System.arraycopy(coords, 0, grownCoords, 0, oldLength);
+			for (int i = oldLength; i < pointerCount; ++i) {
+				grownProperties[i] = new MotionEvent.PointerProperties();
+				grownCoords[i] = new MotionEvent.PointerCoords();
+			}
+			properties = grownProperties;
+			coords = grownCoords;
+		}
+		for (int i = 0; i < pointerCount; ++i) {
+			event.getPointerProperties(i, properties[i]);
+			event.getPointerCoords(i, coords[i]);
+		}
+		downTime = event.getDownTime();
+		eventTime = event.getEventTime();
+		action = event.getAction();
+		metaState = event.getMetaState();
+		buttonState = event.getButtonState();
+		xPrecision = event.getXPrecision();
+		yPrecision = event.getYPrecision();
+		deviceId = event.getDeviceId();
+		edgeFlags = event.getEdgeFlags();
+		source = event.getSource();
+		flags = event.getFlags();
+		rawOffsetX = event.getRawX() - event.getX();
+		rawOffsetY = event.getRawY() - event.getY();
+		isSet = true;
+	}
+
+	void clear() {
+		isSet = false;
+	}
+
+	boolean isSet() {
+		return isSet;
+	}
+
+	/**
+	 * @return a new event equal to the last one set, which the caller must recycle, or null if
+	 * nothing was set
+	 */
+	MotionEvent obtain() {
+		if (!isSet) {
+			return null;
+		}
+		for (int i = 0; i < pointerCount; ++i) {
+			coords[i].x += rawOffsetX;
+			coords[i].y += rawOffsetY;
+		}
+		MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties,
+				coords, metaState, buttonState, xPrecision, yPrecision, deviceId, edgeFlags, source,
+				flags);
+		for (int i = 0; i < pointerCount; ++i) {
+			coords[i].x -= rawOffsetX;
+			coords[i].y -= rawOffsetY;
+		}
+		// Restores the view coordinates while keeping the raw ones of the original event.
+		event.offsetLocation(-rawOffsetX, -rawOffsetY);
+		return event;
+	}
+
+}
@@ -0,0 +1,10 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+/**
+ * Receives the children of a scroll view's only child that enter or leave the visible area.
+ */
+public interface OnChildVisibilityChangedListener {
+
+	public void onChildVisibilityChanged(int index, boolean visible);
+
+}
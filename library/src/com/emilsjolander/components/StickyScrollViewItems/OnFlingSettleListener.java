@@ -0,0 +1,14 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.View;
+
+/**
+ * Receives the position a fling is predicted to settle at, as soon as the fling starts. A
+ * {@link StickyScrollView} reports positions across the combined range of itself and its active
+ * {@link StickyContentView} and updates the prediction when a fling is handed over between them.
+ */
+public interface OnFlingSettleListener {
+
+	public void onFlingSettlePredicted(View v, int finalPosition, int maxPosition);
+
+}
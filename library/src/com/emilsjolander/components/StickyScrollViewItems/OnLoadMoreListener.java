@@ -0,0 +1,14 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.View;
+
+/**
+ * Asked for more content when a {@link ContentScrollView} is scrolled, or a fling is predicted to
+ * settle, within its prefetch distance of the end. It is asked once per content height; append
+ * with {@link ContentScrollView#appendContent(View...)} to be asked again.
+ */
+public interface OnLoadMoreListener {
+
+	public void onLoadMore(View v);
+
+}
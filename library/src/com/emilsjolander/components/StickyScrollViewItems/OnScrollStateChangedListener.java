@@ -0,0 +1,28 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.View;
+
+/**
+ * Receives scroll state changes of a {@link ScrollViewEx}. A {@link StickyScrollView} reports the
+ * combined state of itself and its active {@link StickyContentView}.
+ */
+public interface OnScrollStateChangedListener {
+
+	/**
+	 * The view is not scrolling.
+	 */
+	public static final int SCROLL_STATE_IDLE = 0;
+
+	/**
+	 * The view is being dragged by the user.
+	 */
+	public static final int SCROLL_STATE_DRAGGING = 1;
+
+	/**
+	 * The view is flinging or animating to a final position.
+	 */
+	public static final int SCROLL_STATE_SETTLING = 2;
+
+	public void onScrollStateChanged(View v, int scrollState);
+
+}
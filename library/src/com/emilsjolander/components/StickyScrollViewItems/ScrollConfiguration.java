@@ -0,0 +1,42 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.view.ViewConfiguration;
+
+import java.util.WeakHashMap;
+
+/**
+ * The {@link ViewConfiguration} and resource values the scroll views need, resolved once per
+ * {@link Context} instead of once per view. Only accessed from the main thread.
+ */
+final class ScrollConfiguration {
+
+	private static final WeakHashMap<Context, ScrollConfiguration> configurations = new WeakHashMap<>();
+
+	final int touchSlop;
+	final int minimumFlingVelocity;
+	final int maximumFlingVelocity;
+	final int overscrollDistance;
+	final int overflingDistance;
+	final int mediumAnimTime;
+
+	private ScrollConfiguration(Context context) {
+		final ViewConfiguration configuration = ViewConfiguration.get(context);
+		touchSlop = configuration.getScaledTouchSlop();
+		minimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+		maximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+		overscrollDistance = configuration.getScaledOverscrollDistance();
+		overflingDistance = configuration.getScaledOverflingDistance();
+		mediumAnimTime = context.getResources().getInteger(android.R.integer.config_mediumAnimTime);
+	}
+
+	static ScrollConfiguration get(Context context) {
+		ScrollConfiguration configuration = configurations.get(context);
+		if (configuration == null) {
+			configuration = new ScrollConfiguration(context);
+			configurations.put(context, configuration);
+		}
+		return configuration;
+	}
+
+}
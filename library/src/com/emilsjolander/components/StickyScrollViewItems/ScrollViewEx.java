@@ -1,6 +1,7 @@
 package com.emilsjolander.components.StickyScrollViewItems;
 
 import android.content.Context;
+import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.os.Build;
@@ -18,7 +19,6 @@ import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
-import android.view.ViewConfiguration;
 import android.view.ViewDebug;
 import android.view.ViewGroup;
 import android.view.ViewParent;
@@ -33,25 +33,43 @@ import java.util.List;
 
 /**
  * Created by Shad on 04.08.14.
+ * <p/>
+ * Scrolls vertically by default. With {@code android:orientation="horizontal"} or
+ * {@link #setOrientation(int)} touch drags, flings, wheel scrolls, measurement and layout work
+ * along the horizontal axis instead; arrow keys, focus changes and accessibility actions only
+ * scroll vertical views.
  */
 public class ScrollViewEx extends FrameLayout {
+
+	/**
+	 * Same value as {@code android:orientation="horizontal"}.
+	 */
+	public static final int HORIZONTAL = 0;
+
+	/**
+	 * Same value as {@code android:orientation="vertical"}.
+	 */
+	public static final int VERTICAL = 1;
+
 	static final int ANIMATED_SCROLL_GAP = 250;
 
 	static final float MAX_SCROLL_FACTOR = 0.5f;
 
+	static final int WHEEL_SCROLL_DURATION = 100;
+
 	private static final String TAG = "ScrollView";
 
 	private long mLastScroll;
 
 	private final Rect mTempRect = new Rect();
 	private OverScroller mScroller;
-	private EdgeEffect mEdgeGlowTop;
-	private EdgeEffect mEdgeGlowBottom;
+	private EdgeEffect mEdgeGlowStart;
+	private EdgeEffect mEdgeGlowEnd;
 
 	/**
 	 * Position of the last motion event.
 	 */
-	private int mLastMotionY;
+	private int mLastMotion;
 
 	/**
 	 * True when the layout has changed but the traversal has not come through yet.
@@ -85,6 +103,23 @@ public class ScrollViewEx extends FrameLayout {
 	@ViewDebug.ExportedProperty(category = "layout")
 	private boolean mFillViewport;
 
+	/**
+	 * Result of the last {@link #onMeasure(int, int)}, reused while the specs, paddings and
+	 * child are unchanged and the child has not requested layout. Content smaller than the
+	 * viewport is measured twice per pass to fill it, see {@link #setFillViewport(boolean)}.
+	 */
+	private View mMeasuredChild;
+	private int mMeasuredWidthSpec;
+	private int mMeasuredHeightSpec;
+	private int mMeasuredPaddingLeft;
+	private int mMeasuredPaddingTop;
+	private int mMeasuredPaddingRight;
+	private int mMeasuredPaddingBottom;
+	private int mMeasuredChildWidth;
+	private int mMeasuredChildHeight;
+	private int mMeasuredWidthAndState;
+	private int mMeasuredHeightAndState;
+
 	/**
 	 * Whether arrow scrolling is animated.
 	 */
@@ -112,8 +147,31 @@ public class ScrollViewEx extends FrameLayout {
 
 	private SavedState mSavedState;
 
+	private int mScrollState = OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+	private OnScrollStateChangedListener mOnScrollStateChangedListener;
+	private OnFlingSettleListener mOnFlingSettleListener;
+	private VisibleRangeTracker mVisibleRangeTracker;
+
+	/**
+	 * Part of the mouse wheel or trackpad scroll that did not amount to a whole pixel yet.
+	 */
+	private float mWheelScrollRemainder;
+
+	/**
+	 * True while the scroller animates a mouse wheel or trackpad scroll.
+	 */
+	private boolean mIsWheelScrolling;
+
 	private boolean wasLaidOut;
 
+	/**
+	 * Whether layout keeps the first content row in the viewport at the same place on screen,
+	 * see {@link #setScrollAnchoringEnabled(boolean)}.
+	 */
+	private boolean mScrollAnchoringEnabled = true;
+
+	private int mOrientation = VERTICAL;
+
 	public ScrollViewEx(Context context) {
 		this(context, null);
 	}
@@ -126,6 +184,10 @@ public class ScrollViewEx extends FrameLayout {
 		super(context, attrs, defStyle);
 		initScrollView();
 
+		TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ScrollViewEx, defStyle, 0);
+		mOrientation = a.getInt(R.styleable.ScrollViewEx_android_orientation, VERTICAL);
+		a.recycle();
+
 		setFillViewport(true);
 	}
 
@@ -142,27 +204,44 @@ public class ScrollViewEx extends FrameLayout {
 
 	@Override
 	protected float getTopFadingEdgeStrength() {
+		return isHorizontal() ? 0.0f : getStartFadingEdgeStrength(getVerticalFadingEdgeLength());
+	}
+
+	@Override
+	protected float getBottomFadingEdgeStrength() {
+		return isHorizontal() ? 0.0f : getEndFadingEdgeStrength(getVerticalFadingEdgeLength());
+	}
+
+	@Override
+	protected float getLeftFadingEdgeStrength() {
+		return isHorizontal() ? getStartFadingEdgeStrength(getHorizontalFadingEdgeLength()) : 0.0f;
+	}
+
+	@Override
+	protected float getRightFadingEdgeStrength() {
+		return isHorizontal() ? getEndFadingEdgeStrength(getHorizontalFadingEdgeLength()) : 0.0f;
+	}
+
+	private float getStartFadingEdgeStrength(int length) {
 		if (getChildCount() == 0) {
 			return 0.0f;
 		}
 
-		final int length = getVerticalFadingEdgeLength();
-		if (getScrollY() < length) {
-			return getScrollY() / (float) length;
+		final int position = getScrollPosition();
+		if (position < length) {
+			return position / (float) length;
 		}
 
 		return 1.0f;
 	}
 
-	@Override
-	protected float getBottomFadingEdgeStrength() {
+	private float getEndFadingEdgeStrength(int length) {
 		if (getChildCount() == 0) {
 			return 0.0f;
 		}
 
-		final int length = getVerticalFadingEdgeLength();
-		final int bottomEdge = getHeight() - getPaddingBottom();
-		final int span = getChildAt(0).getBottom() - getScrollY() - bottomEdge;
+		final int endEdge = isHorizontal() ? getWidth() - getPaddingRight() : getHeight() - getPaddingBottom();
+		final int span = getEnd(getChildAt(0)) - getScrollPosition() - endEdge;
 		if (span < length) {
 			return span / (float) length;
 		}
@@ -184,12 +263,12 @@ public class ScrollViewEx extends FrameLayout {
 		setFocusable(true);
 		setDescendantFocusability(FOCUS_AFTER_DESCENDANTS);
 		setWillNotDraw(false);
-		final ViewConfiguration configuration = ViewConfiguration.get(getContext());
-		mTouchSlop = configuration.getScaledTouchSlop();
-		mMinimumVelocity = configuration.getScaledMinimumFlingVelocity() / 2;
-		mMaximumVelocity = configuration.getScaledMaximumFlingVelocity();
-		mOverscrollDistance = configuration.getScaledOverscrollDistance();
-		mOverflingDistance = configuration.getScaledOverflingDistance();
+		final ScrollConfiguration configuration = ScrollConfiguration.get(getContext());
+		mTouchSlop = configuration.touchSlop;
+		mMinimumVelocity = configuration.minimumFlingVelocity / 2;
+		mMaximumVelocity = configuration.maximumFlingVelocity;
+		mOverscrollDistance = configuration.overscrollDistance;
+		mOverflingDistance = configuration.overflingDistance;
 	}
 
 	@Override
@@ -234,24 +313,131 @@ public class ScrollViewEx extends FrameLayout {
 	private boolean canScroll() {
 		View child = getChildAt(0);
 		if (child != null) {
-			int childHeight = child.getHeight();
-			return getHeight() < childHeight + getPaddingTop() + getPaddingBottom();
+			return getViewportLength() < getLength(child);
 		}
 		return false;
 	}
 
 	@Override
 	public boolean canScrollVertically(int direction) {
+		return !isHorizontal() && canScrollAlong(direction);
+	}
+
+	@Override
+	public boolean canScrollHorizontally(int direction) {
+		return isHorizontal() && canScrollAlong(direction);
+	}
+
+	/**
+	 * @param direction negative to check scrolling back, positive to check scrolling forward
+	 * @return whether this view can scroll in the direction along its scrolling axis
+	 */
+	public boolean canScrollAlong(int direction) {
 		if (!canScroll()) {
 			return false;
 		}
 		if (direction > 0) {
-			return getScrollY() < getScrollRange();
+			return getScrollPosition() < getScrollRange();
+		} else {
+			return getScrollPosition() > 0;
+		}
+	}
+
+	/**
+	 * @return {@link #VERTICAL} or {@link #HORIZONTAL}
+	 */
+	public int getOrientation() {
+		return mOrientation;
+	}
+
+	/**
+	 * Sets the axis the content scrolls along. Any running scroll is stopped and the content is
+	 * measured again.
+	 *
+	 * @param orientation {@link #VERTICAL} or {@link #HORIZONTAL}
+	 */
+	public void setOrientation(int orientation) {
+		if (orientation != mOrientation) {
+			mOrientation = orientation;
+			mScroller.abortAnimation();
+			scrollTo(0, 0);
+			mMeasuredChild = null;
+			requestLayout();
+		}
+	}
+
+	public boolean isHorizontal() {
+		return mOrientation == HORIZONTAL;
+	}
+
+	/**
+	 * @return the scroll position along the scrolling axis
+	 */
+	public int getScrollPosition() {
+		return isHorizontal() ? getScrollX() : getScrollY();
+	}
+
+	private void setScrollPosition(int position) {
+		if (isHorizontal()) {
+			setScrollX(position);
+		} else {
+			setScrollY(position);
+		}
+	}
+
+	/**
+	 * Scrolls immediately by the given pixels along the scrolling axis.
+	 */
+	public void scrollAlongBy(int delta) {
+		if (isHorizontal()) {
+			scrollBy(delta, 0);
 		} else {
-			return getScrollY() > 0;
+			scrollBy(0, delta);
 		}
 	}
 
+	/**
+	 * @return length of the area the content is shown in along the scrolling axis, without padding
+	 */
+	private int getViewportLength() {
+		return isHorizontal() ? getWidth() - getPaddingLeft() - getPaddingRight()
+				: getHeight() - getPaddingTop() - getPaddingBottom();
+	}
+
+	private int getLength(View v) {
+		return isHorizontal() ? v.getWidth() : v.getHeight();
+	}
+
+	private int getStart(View v) {
+		return isHorizontal() ? v.getLeft() : v.getTop();
+	}
+
+	private int getEnd(View v) {
+		return isHorizontal() ? v.getRight() : v.getBottom();
+	}
+
+	private float getMotion(MotionEvent ev, int pointerIndex) {
+		return isHorizontal() ? ev.getX(pointerIndex) : ev.getY(pointerIndex);
+	}
+
+	private float getVelocity(VelocityTracker velocityTracker, int pointerId) {
+		return isHorizontal() ? velocityTracker.getXVelocity(pointerId)
+				: velocityTracker.getYVelocity(pointerId);
+	}
+
+	/**
+	 * Calls {@link #overScrollBy} with the delta, range and overscroll distance on the scrolling
+	 * axis.
+	 */
+	private boolean overScrollAlong(int delta, int range, int maxOverScroll, boolean isTouchEvent) {
+		if (isHorizontal()) {
+			return overScrollBy(delta, 0, getScrollX(), getScrollY(), range, 0, maxOverScroll, 0,
+					isTouchEvent);
+		}
+		return overScrollBy(0, delta, getScrollX(), getScrollY(), 0, range, 0, maxOverScroll,
+				isTouchEvent);
+	}
+
 	/**
 	 * Indicates whether this ScrollView's content is stretched to fill the viewport.
 	 *
@@ -273,6 +459,7 @@ public class ScrollViewEx extends FrameLayout {
 	public void setFillViewport(boolean fillViewport) {
 		if (fillViewport != mFillViewport) {
 			mFillViewport = fillViewport;
+			mMeasuredChild = null;
 			requestLayout();
 		}
 	}
@@ -293,14 +480,68 @@ public class ScrollViewEx extends FrameLayout {
 		mSmoothScrollingEnabled = smoothScrollingEnabled;
 	}
 
+	/**
+	 * @return Whether content changing height above the viewport keeps the visible content in place.
+	 */
+	public boolean isScrollAnchoringEnabled() {
+		return mScrollAnchoringEnabled;
+	}
+
+	/**
+	 * Set whether layout keeps the visible content in place when content above the viewport
+	 * changes height, like images finishing loading or sections expanding. The first child of the
+	 * content that is in the viewport is used as an anchor and the scroll position is moved by
+	 * however far the anchor moved, in the same layout pass. Enabled by default; nothing is
+	 * adjusted while at the top or while a fling or smooth scroll is running.
+	 *
+	 * @param scrollAnchoringEnabled whether to anchor the scroll position on layout
+	 */
+	public void setScrollAnchoringEnabled(boolean scrollAnchoringEnabled) {
+		mScrollAnchoringEnabled = scrollAnchoringEnabled;
+	}
+
 	@Override
 	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		final View measuredChild = getChildCount() > 0 ? getChildAt(0) : null;
+		if (measuredChild != null && measuredChild == mMeasuredChild
+				&& !measuredChild.isLayoutRequested()
+				&& widthMeasureSpec == mMeasuredWidthSpec && heightMeasureSpec == mMeasuredHeightSpec
+				&& getPaddingLeft() == mMeasuredPaddingLeft && getPaddingTop() == mMeasuredPaddingTop
+				&& getPaddingRight() == mMeasuredPaddingRight
+				&& getPaddingBottom() == mMeasuredPaddingBottom
+				&& measuredChild.getMeasuredWidth() == mMeasuredChildWidth
+				&& measuredChild.getMeasuredHeight() == mMeasuredChildHeight) {
+			setMeasuredDimension(mMeasuredWidthAndState, mMeasuredHeightAndState);
+			return;
+		}
+		measureContent(widthMeasureSpec, heightMeasureSpec);
+		mMeasuredChild = measuredChild;
+		if (measuredChild != null) {
+			mMeasuredWidthSpec = widthMeasureSpec;
+			mMeasuredHeightSpec = heightMeasureSpec;
+			mMeasuredPaddingLeft = getPaddingLeft();
+			mMeasuredPaddingTop = getPaddingTop();
+			mMeasuredPaddingRight = getPaddingRight();
+			mMeasuredPaddingBottom = getPaddingBottom();
+			mMeasuredChildWidth = measuredChild.getMeasuredWidth();
+			mMeasuredChildHeight = measuredChild.getMeasuredHeight();
+			mMeasuredWidthAndState = getMeasuredWidthAndState();
+			mMeasuredHeightAndState = getMeasuredHeightAndState();
+		}
+	}
+
+	private void measureContent(int widthMeasureSpec, int heightMeasureSpec) {
 		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
 		if (!mFillViewport) {
 			return;
 		}
 
+		if (isHorizontal()) {
+			measureContentToFillWidth(widthMeasureSpec, heightMeasureSpec);
+			return;
+		}
+
 		final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
 		if (heightMode == MeasureSpec.UNSPECIFIED) {
 			return;
@@ -324,6 +565,30 @@ public class ScrollViewEx extends FrameLayout {
 		}
 	}
 
+	private void measureContentToFillWidth(int widthMeasureSpec, int heightMeasureSpec) {
+		final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+		if (widthMode == MeasureSpec.UNSPECIFIED) {
+			return;
+		}
+
+		if (getChildCount() > 0) {
+			final View child = getChildAt(0);
+			int width = getMeasuredWidth();
+			if (child.getMeasuredWidth() < width) {
+				final FrameLayout.LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+				int childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
+						getPaddingTop() + getPaddingBottom(), lp.height);
+				width -= getPaddingLeft();
+				width -= getPaddingRight();
+				int childWidthMeasureSpec =
+						MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
+
+				child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+			}
+		}
+	}
+
 	@Override
 	public boolean dispatchKeyEvent(KeyEvent event) {
 		// Let the focused view and/or our descendants get the key first
@@ -341,6 +606,11 @@ public class ScrollViewEx extends FrameLayout {
 	public boolean executeKeyEvent(KeyEvent event) {
 		mTempRect.setEmpty();
 
+		if (isHorizontal()) {
+			// Key scrolling is vertical only, leave the keys to focus navigation.
+			return false;
+		}
+
 		if (!canScroll()) {
 			if (isFocused() && event.getKeyCode() != KeyEvent.KEYCODE_BACK) {
 				View currentFocused = findFocus();
@@ -382,12 +652,13 @@ public class ScrollViewEx extends FrameLayout {
 
 	private boolean inChild(int x, int y) {
 		if (getChildCount() > 0) {
-			final int scrollY = getScrollY();
+			final int scrollX = isHorizontal() ? getScrollX() : 0;
+			final int scrollY = isHorizontal() ? 0 : getScrollY();
 			final View child = getChildAt(0);
 			return !(y < child.getTop() - scrollY
 					|| y >= child.getBottom() - scrollY
-					|| x < child.getLeft()
-					|| x >= child.getRight());
+					|| x < child.getLeft() - scrollX
+					|| x >= child.getRight() - scrollX);
 		}
 		return false;
 	}
@@ -461,13 +732,16 @@ public class ScrollViewEx extends FrameLayout {
 			}
 			velocityTracker.addMovement(event);
 			velocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
-			int initialVelocity = (int) velocityTracker.getYVelocity(mActivePointerId);
+			int initialVelocity = (int) getVelocity(velocityTracker, mActivePointerId);
 			velocityTracker.recycle();
 			if (getChildCount() > 0) {
 				if ((Math.abs(initialVelocity) > mMinimumVelocity)) {
 					stopAndFly(-initialVelocity);
 				}
 			}
+			if (mScroller.isFinished()) {
+				setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+			}
 			return;
 		}
 
@@ -479,22 +753,22 @@ public class ScrollViewEx extends FrameLayout {
 		mActivePointerId = pointerId;
 		int prevPointerIndex = prevEvent.findPointerIndex(pointerId);
 		if (prevPointerIndex >= 0) {
-			mLastMotionY = (int) prevEvent.getY(prevPointerIndex);
+			mLastMotion = (int) getMotion(prevEvent, prevPointerIndex);
 		} else {
-			mLastMotionY = (int) prevEvent.getY();
+			mLastMotion = (int) getMotion(prevEvent, 0);
 		}
 
 
 		int action = event.getActionMasked();
 		if (action == MotionEvent.ACTION_POINTER_DOWN) {
 			final int index = event.getActionIndex();
-			mLastMotionY = (int) event.getY(index);
+			mLastMotion = (int) getMotion(event, index);
 			mActivePointerId = event.getPointerId(index);
 		} else if (action == MotionEvent.ACTION_POINTER_UP) {
 			onSecondaryPointerUp(event);
 			prevPointerIndex = event.findPointerIndex(mActivePointerId);
 			if (prevPointerIndex >= 0) {
-				mLastMotionY = (int) event.getY(prevPointerIndex);
+				mLastMotion = (int) getMotion(event, prevPointerIndex);
 			}
 		}
 
@@ -514,20 +788,20 @@ public class ScrollViewEx extends FrameLayout {
 
 		mIsBeingDragged = true;
 		onScrollStateChanged(true);
+		setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
 
-		final int y = (int) event.getY(pointerIndex);
+		final int position = (int) getMotion(event, pointerIndex);
 
 		// Scroll to follow the motion event
 
-		int deltaY = mLastMotionY - y;
-		if (deltaY > 0) {
-			deltaY -= mTouchSlop;
+		int delta = mLastMotion - position;
+		if (delta > 0) {
+			delta -= mTouchSlop;
 		} else {
-			deltaY += mTouchSlop;
+			delta += mTouchSlop;
 		}
-		mLastMotionY = y;
-		final int oldX = getScrollX();
-		final int oldY = getScrollY();
+		mLastMotion = position;
+		final int oldPosition = getScrollPosition();
 		final int range = getScrollRange();
 		final int overscrollMode = getOverScrollMode();
 		final boolean canOverscroll = overscrollMode == OVER_SCROLL_ALWAYS ||
@@ -535,25 +809,27 @@ public class ScrollViewEx extends FrameLayout {
 
 		// Calling overScrollBy will call onOverScrolled, which
 		// calls onScrollChanged if applicable.
-		if (overScrollBy(0, deltaY, 0, getScrollY(), 0, range, 0, mOverscrollDistance, true)) {
+		if (overScrollAlong(delta, range, mOverscrollDistance, true)) {
 //			mVelocityTracker.clear();
+			onDragClamped(delta);
 		}
 
 		if (canOverscroll) {
-			final int pulledToY = oldY + deltaY;
-			if (pulledToY < 0) {
-				mEdgeGlowTop.onPull((float) deltaY / getHeight());
-				if (!mEdgeGlowBottom.isFinished()) {
-					mEdgeGlowBottom.onRelease();
+			final int pulledTo = oldPosition + delta;
+			final int length = isHorizontal() ? getWidth() : getHeight();
+			if (pulledTo < 0) {
+				mEdgeGlowStart.onPull((float) delta / length);
+				if (!mEdgeGlowEnd.isFinished()) {
+					mEdgeGlowEnd.onRelease();
 				}
-			} else if (pulledToY > range) {
-				mEdgeGlowBottom.onPull((float) deltaY / getHeight());
-				if (!mEdgeGlowTop.isFinished()) {
-					mEdgeGlowTop.onRelease();
+			} else if (pulledTo > range) {
+				mEdgeGlowEnd.onPull((float) delta / length);
+				if (!mEdgeGlowStart.isFinished()) {
+					mEdgeGlowStart.onRelease();
 				}
 			}
-			if (mEdgeGlowTop != null
-					&& (!mEdgeGlowTop.isFinished() || !mEdgeGlowBottom.isFinished())) {
+			if (mEdgeGlowStart != null
+					&& (!mEdgeGlowStart.isFinished() || !mEdgeGlowEnd.isFinished())) {
 				ViewCompat.postInvalidateOnAnimation(this);
 			}
 		}
@@ -581,7 +857,7 @@ public class ScrollViewEx extends FrameLayout {
         /*
          * Don't try to intercept touch if we can't scroll anyway.
          */
-		if (getScrollY() == 0 && !canScrollVertically(1)) {
+		if (getScrollPosition() == 0 && !canScrollAlong(1)) {
 			return false;
 		}
 
@@ -593,7 +869,7 @@ public class ScrollViewEx extends FrameLayout {
                  */
 
                 /*
-                * Locally do absolute value. mLastMotionY is set to the y value
+                * Locally do absolute value. mLastMotion is set to the position
                 * of the down event.
                 */
 				final int activePointerId = mActivePointerId;
@@ -609,11 +885,12 @@ public class ScrollViewEx extends FrameLayout {
 					break;
 				}
 
-				final int y = (int) ev.getY(pointerIndex);
-				final int yDiff = Math.abs(y - mLastMotionY);
-				if (yDiff > mTouchSlop) {
+				final int position = (int) getMotion(ev, pointerIndex);
+				final int diff = Math.abs(position - mLastMotion);
+				if (diff > mTouchSlop) {
 					mIsBeingDragged = true;
-					mLastMotionY = y;
+					setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
+					mLastMotion = position;
 					initVelocityTrackerIfNotExists();
 					mVelocityTracker.addMovement(ev);
 					final ViewParent parent = getParent();
@@ -636,7 +913,7 @@ public class ScrollViewEx extends FrameLayout {
                  * Remember location of down touch.
                  * ACTION_DOWN always refers to pointer index 0.
                  */
-				mLastMotionY = y;
+				mLastMotion = (int) getMotion(ev, 0);
 				mActivePointerId = ev.getPointerId(0);
 
 				initOrResetVelocityTracker();
@@ -647,6 +924,9 @@ public class ScrollViewEx extends FrameLayout {
                 * being flinged.
                 */
 				mIsBeingDragged = !mScroller.isFinished();
+				if (mIsBeingDragged) {
+					setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
+				}
 				break;
 			}
 
@@ -694,9 +974,11 @@ public class ScrollViewEx extends FrameLayout {
 					mScroller.abortAnimation();
 
 				}
+				setScrollState(mIsBeingDragged ? OnScrollStateChangedListener.SCROLL_STATE_DRAGGING
+						: OnScrollStateChangedListener.SCROLL_STATE_IDLE);
 
 				// Remember where the motion event started
-				mLastMotionY = (int) ev.getY();
+				mLastMotion = (int) getMotion(ev, 0);
 				mActivePointerId = ev.getPointerId(0);
 				break;
 			}
@@ -707,27 +989,27 @@ public class ScrollViewEx extends FrameLayout {
 					break;
 				}
 
-				final int y = (int) ev.getY(activePointerIndex);
-				int deltaY = mLastMotionY - y;
-				if (!mIsBeingDragged && Math.abs(deltaY) > mTouchSlop) {
+				final int position = (int) getMotion(ev, activePointerIndex);
+				int delta = mLastMotion - position;
+				if (!mIsBeingDragged && Math.abs(delta) > mTouchSlop) {
 					final ViewParent parent = getParent();
 					if (parent != null) {
 						parent.requestDisallowInterceptTouchEvent(true);
 					}
 					mIsBeingDragged = true;
 					onScrollStateChanged(true);
-					if (deltaY > 0) {
-						deltaY -= mTouchSlop;
+					setScrollState(OnScrollStateChangedListener.SCROLL_STATE_DRAGGING);
+					if (delta > 0) {
+						delta -= mTouchSlop;
 					} else {
-						deltaY += mTouchSlop;
+						delta += mTouchSlop;
 					}
 				}
 				if (mIsBeingDragged) {
 					// Scroll to follow the motion event
-					mLastMotionY = y;
+					mLastMotion = position;
 
-					final int oldX = getScrollX();
-					final int oldY = getScrollY();
+					final int oldPosition = getScrollPosition();
 					final int range = getScrollRange();
 					final int overscrollMode = getOverScrollMode();
 					final boolean canOverscroll = overscrollMode == OVER_SCROLL_ALWAYS ||
@@ -735,29 +1017,30 @@ public class ScrollViewEx extends FrameLayout {
 
 					// Calling overScrollBy will call onOverScrolled, which
 					// calls onScrollChanged if applicable.
-					if (overScrollBy(0, deltaY, 0, getScrollY(),
-							0, range, 0, mOverscrollDistance, true)) {
+					if (overScrollAlong(delta, range, mOverscrollDistance, true)) {
 						// Break our velocity if we hit a scroll barrier.
 						if (mVelocityTracker != null) {
 							mVelocityTracker.clear();
 						}
+						onDragClamped(delta);
 					}
 
 					if (canOverscroll) {
-						final int pulledToY = oldY + deltaY;
-						if (pulledToY < 0) {
-							mEdgeGlowTop.onPull((float) deltaY / getHeight());
-							if (!mEdgeGlowBottom.isFinished()) {
-								mEdgeGlowBottom.onRelease();
+						final int pulledTo = oldPosition + delta;
+						final int length = isHorizontal() ? getWidth() : getHeight();
+						if (pulledTo < 0) {
+							mEdgeGlowStart.onPull((float) delta / length);
+							if (!mEdgeGlowEnd.isFinished()) {
+								mEdgeGlowEnd.onRelease();
 							}
-						} else if (pulledToY > range) {
-							mEdgeGlowBottom.onPull((float) deltaY / getHeight());
-							if (!mEdgeGlowTop.isFinished()) {
-								mEdgeGlowTop.onRelease();
+						} else if (pulledTo > range) {
+							mEdgeGlowEnd.onPull((float) delta / length);
+							if (!mEdgeGlowStart.isFinished()) {
+								mEdgeGlowStart.onRelease();
 							}
 						}
-						if (mEdgeGlowTop != null
-								&& (!mEdgeGlowTop.isFinished() || !mEdgeGlowBottom.isFinished())) {
+						if (mEdgeGlowStart != null
+								&& (!mEdgeGlowStart.isFinished() || !mEdgeGlowEnd.isFinished())) {
 							ViewCompat.postInvalidateOnAnimation(this);
 						}
 					}
@@ -769,7 +1052,7 @@ public class ScrollViewEx extends FrameLayout {
 
 
 					velocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
-					int initialVelocity = (int) velocityTracker.getYVelocity(mActivePointerId);
+					int initialVelocity = (int) getVelocity(velocityTracker, mActivePointerId);
 
 					if (getChildCount() > 0) {
 						if ((Math.abs(initialVelocity) > mMinimumVelocity)) {
@@ -787,13 +1070,13 @@ public class ScrollViewEx extends FrameLayout {
 				break;
 			case MotionEvent.ACTION_POINTER_DOWN: {
 				final int index = ev.getActionIndex();
-				mLastMotionY = (int) ev.getY(index);
+				mLastMotion = (int) getMotion(ev, index);
 				mActivePointerId = ev.getPointerId(index);
 				break;
 			}
 			case MotionEvent.ACTION_POINTER_UP:
 				onSecondaryPointerUp(ev);
-				mLastMotionY = (int) ev.getY(ev.findPointerIndex(mActivePointerId));
+				mLastMotion = (int) getMotion(ev, ev.findPointerIndex(mActivePointerId));
 				break;
 		}
 		return true;
@@ -808,7 +1091,7 @@ public class ScrollViewEx extends FrameLayout {
 			// active pointer and adjust accordingly.
 			// TODO: Make this decision more intelligent.
 			final int newPointerIndex = pointerIndex == 0 ? 1 : 0;
-			mLastMotionY = (int) ev.getY(newPointerIndex);
+			mLastMotion = (int) getMotion(ev, newPointerIndex);
 			mActivePointerId = ev.getPointerId(newPointerIndex);
 			if (mVelocityTracker != null) {
 				mVelocityTracker.clear();
@@ -820,25 +1103,47 @@ public class ScrollViewEx extends FrameLayout {
 
 	}
 
+	/**
+	 * @return one of {@link OnScrollStateChangedListener#SCROLL_STATE_IDLE},
+	 * {@link OnScrollStateChangedListener#SCROLL_STATE_DRAGGING} or
+	 * {@link OnScrollStateChangedListener#SCROLL_STATE_SETTLING}
+	 */
+	public int getScrollState() {
+		return mScrollState;
+	}
+
+	public void setOnScrollStateChangedListener(OnScrollStateChangedListener onScrollStateChangedListener) {
+		mOnScrollStateChangedListener = onScrollStateChangedListener;
+	}
+
+	protected void setScrollState(int scrollState) {
+		if (mScrollState != scrollState) {
+			mScrollState = scrollState;
+			dispatchScrollStateChanged(scrollState);
+		}
+	}
+
+	protected void dispatchScrollStateChanged(int scrollState) {
+		if (mOnScrollStateChangedListener != null) {
+			mOnScrollStateChangedListener.onScrollStateChanged(this, scrollState);
+		}
+	}
+
 	@Override
 	public boolean onGenericMotionEvent(MotionEvent event) {
 		if ((event.getSource() & InputDevice.SOURCE_CLASS_POINTER) != 0) {
 			switch (event.getAction()) {
 				case MotionEvent.ACTION_SCROLL: {
 					if (!mIsBeingDragged) {
-						final float vscroll = event.getAxisValue(MotionEvent.AXIS_VSCROLL);
-						if (vscroll != 0) {
-							final int delta = (int) (vscroll * getVerticalScrollFactor());
-							final int range = getScrollRange();
-							int oldScrollY = getScrollY();
-							int newScrollY = oldScrollY - delta;
-							if (newScrollY < 0) {
-								newScrollY = 0;
-							} else if (newScrollY > range) {
-								newScrollY = range;
-							}
-							if (newScrollY != oldScrollY) {
-								super.scrollTo(getScrollX(), newScrollY);
+						final float scroll = getWheelScroll(event);
+						if (scroll != 0) {
+							// High resolution devices report fractions of a tick, keep what is left
+							// of a pixel for the next event.
+							final float delta = mWheelScrollRemainder + scroll * getVerticalScrollFactor();
+							final int pixels = (int) delta;
+							mWheelScrollRemainder = delta - pixels;
+							if (pixels != 0 && performWheelScroll(pixels, (int) event.getX(),
+									(int) event.getY())) {
 								return true;
 							}
 						}
@@ -849,19 +1154,144 @@ public class ScrollViewEx extends FrameLayout {
 		return super.onGenericMotionEvent(event);
 	}
 
+	/**
+	 * Reports the children of this view's only child that enter or leave the visible area, as
+	 * they do. The children are expected to be stacked vertically.
+	 */
+	public void setOnChildVisibilityChangedListener(OnChildVisibilityChangedListener listener) {
+		if (listener == null) {
+			mVisibleRangeTracker = null;
+			return;
+		}
+		mVisibleRangeTracker = new VisibleRangeTracker(listener);
+		if (getChildCount() > 0) {
+			mVisibleRangeTracker.setBounds(getChildAt(0));
+			updateVisibleRange();
+		}
+	}
+
+	/**
+	 * @return index of the first visible child of the only child, or -1 if visibility is not
+	 * being tracked
+	 */
+	public int getFirstVisibleChildIndex() {
+		return mVisibleRangeTracker != null ? mVisibleRangeTracker.getFirstVisibleIndex() : -1;
+	}
+
+	/**
+	 * @return index of the last visible child of the only child, or -1 if visibility is not
+	 * being tracked or no child is visible
+	 */
+	public int getLastVisibleChildIndex() {
+		return mVisibleRangeTracker != null ? mVisibleRangeTracker.getLastVisibleIndex() : -1;
+	}
+
+	/**
+	 * @return top of the area in which children count as visible, in this view's scrolled
+	 * coordinates
+	 */
+	protected int getVisibleRangeTop() {
+		return getScrollY() + getPaddingTop();
+	}
+
+	private void updateVisibleRange() {
+		if (mVisibleRangeTracker == null || getChildCount() == 0) {
+			return;
+		}
+		final int offset = getChildAt(0).getTop();
+		mVisibleRangeTracker.update(getVisibleRangeTop() - offset,
+				getScrollY() + getHeight() - getPaddingBottom() - offset);
+	}
+
+	@Override
+	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+		super.onScrollChanged(l, t, oldl, oldt);
+		updateVisibleRange();
+	}
+
+	/**
+	 * Smoothly scrolls by a mouse wheel delta. Consecutive calls extend the running animation
+	 * instead of restarting from the current position.
+	 *
+	 * @param delta the number of pixels to scroll by
+	 * @return true if any of the delta was consumed
+	 */
+	public boolean wheelScrollBy(int delta) {
+		return performWheelScroll(delta, getWidth() / 2, getHeight() / 2);
+	}
+
+	public boolean isWheelScrolling() {
+		return mIsWheelScrolling && !mScroller.isFinished();
+	}
+
+	/**
+	 * @return wheel ticks of the event towards the end of the scrolling axis. Horizontal views
+	 * take the vertical wheel while shift is held, like {@link android.widget.HorizontalScrollView}.
+	 */
+	private float getWheelScroll(MotionEvent event) {
+		if (!isHorizontal()) {
+			return -event.getAxisValue(MotionEvent.AXIS_VSCROLL);
+		}
+		if ((event.getMetaState() & KeyEvent.META_SHIFT_ON) != 0) {
+			return -event.getAxisValue(MotionEvent.AXIS_VSCROLL);
+		}
+		return event.getAxisValue(MotionEvent.AXIS_HSCROLL);
+	}
+
+	private boolean performWheelScroll(int delta, int x, int y) {
+		if (getChildCount() == 0) {
+			return false;
+		}
+		final int position = getScrollPosition();
+		final int from = isWheelScrolling() ? getScrollerFinalPosition() : position;
+		final int target = Math.max(0, Math.min(from + delta, getScrollRange()));
+		boolean handled = false;
+		if (target != from) {
+			startScrollAlong(position, target - position, WHEEL_SCROLL_DURATION);
+			mIsWheelScrolling = true;
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_SETTLING);
+			ViewCompat.postInvalidateOnAnimation(this);
+			handled = true;
+		}
+		final int unconsumed = from + delta - target;
+		if (unconsumed != 0 && dispatchUnconsumedWheelScroll(unconsumed, x, y)) {
+			handled = true;
+		}
+		return handled;
+	}
+
+	/**
+	 * Called with the part of a mouse wheel scroll that went past the end of this view's range.
+	 *
+	 * @param x horizontal position of the pointer in this view's coordinates
+	 * @param y vertical position of the pointer in this view's coordinates
+	 * @return true if the delta was consumed
+	 */
+	protected boolean dispatchUnconsumedWheelScroll(int delta, int x, int y) {
+		return false;
+	}
+
 	protected void invalidateParentIfNeeded() {
 		if (isHardwareAccelerated() && getParent() instanceof View) {
 			((View) getParent()).invalidate();
 		}
 	}
 
+	/**
+	 * Called when a drag tries to move past either end of the scroll range, where no scroll
+	 * change is reported.
+	 *
+	 * @param deltaY the distance the drag tried to scroll along the scrolling axis
+	 */
+	protected void onDragClamped(int deltaY) {
+	}
+
 	@Override
 	protected void onOverScrolled(int scrollX, int scrollY,
 	                              boolean clampedX, boolean clampedY) {
 		// Treat animating scrolls differently; see #computeScroll() for why.
 		if (!mScroller.isFinished()) {
-			final int oldY = getScrollY();
-			setScrollY(scrollY);
+			setScrollPosition(isHorizontal() ? scrollX : scrollY);
 //			if (clampedY) {
 //				mScroller.springBack(getScrollX(), getScrollY(), 0, 0, 0, getScrollRange());
 //			}
@@ -935,12 +1365,11 @@ public class ScrollViewEx extends FrameLayout {
 		}
 	}
 
-	protected int getScrollRange() {
+	public int getScrollRange() {
 		int scrollRange = 0;
 		if (getChildCount() > 0) {
 			View child = getChildAt(0);
-			scrollRange = Math.max(0,
-					child.getHeight() - (getHeight() - getPaddingBottom() - getPaddingTop()));
+			scrollRange = Math.max(0, getLength(child) - getViewportLength());
 		}
 		return scrollRange;
 	}
@@ -1232,19 +1661,18 @@ public class ScrollViewEx extends FrameLayout {
 		}
 		long dt = AnimationUtils.currentAnimationTimeMillis() - mLastScroll;
 		if (dt > ANIMATED_SCROLL_GAP) {
-			final int height = getHeight() - getPaddingBottom() - getPaddingTop();
-			final int bottom = getChildAt(0).getHeight();
-			final int maxY = Math.max(0, bottom - height);
-			final int scrollY = getScrollY();
-			distance = Math.max(0, Math.min(scrollY + distance, maxY)) - scrollY;
+			final int position = getScrollPosition();
+			distance = Math.max(0, Math.min(position + distance, getScrollRange())) - position;
 
-			mScroller.startScroll(getScrollX(), scrollY, 0, distance, duration);
+			startScrollAlong(position, distance, duration);
+			mIsWheelScrolling = false;
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_SETTLING);
 			ViewCompat.postInvalidateOnAnimation(this);
 		} else {
 			if (!mScroller.isFinished()) {
 				mScroller.abortAnimation();
 			}
-			scrollBy(0, distance);
+			scrollAlongBy(distance);
 		}
 		mLastScroll = AnimationUtils.currentAnimationTimeMillis();
 	}
@@ -1253,12 +1681,45 @@ public class ScrollViewEx extends FrameLayout {
 		if (!mScroller.isFinished()) {
 			mScroller.forceFinished(true);
 		}
+		if (!mIsBeingDragged) {
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+		}
 	}
 
 	public float getCurrentFlingVelocity() {
 		return mScroller.getCurrVelocity();
 	}
 
+	/**
+	 * @return the position along the scrolling axis the current fling or smooth scroll will
+	 * settle at
+	 */
+	public int getFlingFinalY() {
+		return getScrollerFinalPosition();
+	}
+
+	private int getScrollerFinalPosition() {
+		return isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+	}
+
+	private void startScrollAlong(int position, int delta, int duration) {
+		if (isHorizontal()) {
+			mScroller.startScroll(position, getScrollY(), delta, 0, duration);
+		} else {
+			mScroller.startScroll(getScrollX(), position, 0, delta, duration);
+		}
+	}
+
+	public void setOnFlingSettleListener(OnFlingSettleListener onFlingSettleListener) {
+		mOnFlingSettleListener = onFlingSettleListener;
+	}
+
+	protected void dispatchFlingSettlePredicted(int finalPosition, int maxPosition) {
+		if (mOnFlingSettleListener != null) {
+			mOnFlingSettleListener.onFlingSettlePredicted(this, finalPosition, maxPosition);
+		}
+	}
+
 	public boolean isBeingDragged() {
 		return mIsBeingDragged;
 	}
@@ -1280,19 +1741,28 @@ public class ScrollViewEx extends FrameLayout {
 	 */
 	@Override
 	protected int computeVerticalScrollRange() {
+		return isHorizontal() ? super.computeVerticalScrollRange() : computeScrollRangeAlong();
+	}
+
+	@Override
+	protected int computeHorizontalScrollRange() {
+		return isHorizontal() ? computeScrollRangeAlong() : super.computeHorizontalScrollRange();
+	}
+
+	private int computeScrollRangeAlong() {
 		final int count = getChildCount();
-		final int contentHeight = getHeight() - getPaddingBottom() - getPaddingTop();
+		final int contentLength = getViewportLength();
 		if (count == 0) {
-			return contentHeight;
+			return contentLength;
 		}
 
-		int scrollRange = getChildAt(0).getBottom();
-		final int scrollY = getScrollY();
-		final int overscrollBottom = Math.max(0, scrollRange - contentHeight);
-		if (scrollY < 0) {
-			scrollRange -= scrollY;
-		} else if (scrollY > overscrollBottom) {
-			scrollRange += scrollY - overscrollBottom;
+		int scrollRange = getEnd(getChildAt(0));
+		final int position = getScrollPosition();
+		final int overscrollEnd = Math.max(0, scrollRange - contentLength);
+		if (position < 0) {
+			scrollRange -= position;
+		} else if (position > overscrollEnd) {
+			scrollRange += position - overscrollEnd;
 		}
 
 		return scrollRange;
@@ -1303,6 +1773,11 @@ public class ScrollViewEx extends FrameLayout {
 		return Math.max(0, super.computeVerticalScrollOffset());
 	}
 
+	@Override
+	protected int computeHorizontalScrollOffset() {
+		return Math.max(0, super.computeHorizontalScrollOffset());
+	}
+
 	@Override
 	protected void measureChild(View child, int parentWidthMeasureSpec, int parentHeightMeasureSpec) {
 		ViewGroup.LayoutParams lp = child.getLayoutParams();
@@ -1310,10 +1785,17 @@ public class ScrollViewEx extends FrameLayout {
 		int childWidthMeasureSpec;
 		int childHeightMeasureSpec;
 
-		childWidthMeasureSpec = getChildMeasureSpec(parentWidthMeasureSpec, getPaddingLeft()
-				+ getPaddingRight(), lp.width);
+		if (isHorizontal()) {
+			childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+
+			childHeightMeasureSpec = getChildMeasureSpec(parentHeightMeasureSpec, getPaddingTop()
+					+ getPaddingBottom(), lp.height);
+		} else {
+			childWidthMeasureSpec = getChildMeasureSpec(parentWidthMeasureSpec, getPaddingLeft()
+					+ getPaddingRight(), lp.width);
 
-		childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+			childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+		}
 
 		child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
 	}
@@ -1323,6 +1805,17 @@ public class ScrollViewEx extends FrameLayout {
 	                                       int parentHeightMeasureSpec, int heightUsed) {
 		final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
 
+		if (isHorizontal()) {
+			final int childHeightMeasureSpec = getChildMeasureSpec(parentHeightMeasureSpec,
+					getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin
+							+ heightUsed, lp.height);
+			final int childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(
+					lp.leftMargin + lp.rightMargin, MeasureSpec.UNSPECIFIED);
+
+			child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+			return;
+		}
+
 		final int childWidthMeasureSpec = getChildMeasureSpec(parentWidthMeasureSpec,
 				getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin
 						+ widthUsed, lp.width);
@@ -1335,6 +1828,7 @@ public class ScrollViewEx extends FrameLayout {
 	@Override
 	public void computeScroll() {
 		if (mScroller.computeScrollOffset()) {
+			StickyTrace.beginSection(StickyTrace.SECTION_COMPUTE_SCROLL);
 			// This is called at drawing time by ViewGroup.  We don't want to
 			// re-show the scrollbars at this point, which scrollTo will do,
 			// so we replicate most of scrollTo here.
@@ -1361,16 +1855,17 @@ public class ScrollViewEx extends FrameLayout {
 				final int overscrollMode = getOverScrollMode();
 				final boolean canOverscroll = overscrollMode == OVER_SCROLL_ALWAYS ||
 						(overscrollMode == OVER_SCROLL_IF_CONTENT_SCROLLS && range > 0);
+				final int position = isHorizontal() ? x : y;
+				final int oldPosition = isHorizontal() ? oldX : oldY;
 
-				overScrollBy(x - oldX, y - oldY, oldX, oldY, 0, range,
-						0, mOverflingDistance, false);
+				overScrollAlong(position - oldPosition, range, mOverflingDistance, false);
 				onScrollChanged(getScrollX(), getScrollY(), oldX, oldY);
 
 				if (canOverscroll) {
-					if (y < 0 && oldY >= 0) {
-						mEdgeGlowTop.onAbsorb((int) mScroller.getCurrVelocity());
-					} else if (y > range && oldY <= range) {
-						mEdgeGlowBottom.onAbsorb((int) mScroller.getCurrVelocity());
+					if (position < 0 && oldPosition >= 0) {
+						mEdgeGlowStart.onAbsorb((int) mScroller.getCurrVelocity());
+					} else if (position > range && oldPosition <= range) {
+						mEdgeGlowEnd.onAbsorb((int) mScroller.getCurrVelocity());
 					}
 				}
 			}
@@ -1379,6 +1874,10 @@ public class ScrollViewEx extends FrameLayout {
 				// Keep on drawing until the animation has finished.
 				ViewCompat.postInvalidateOnAnimation(this);
 			}
+			if (mScroller.isFinished() && !mIsBeingDragged) {
+				setScrollState(OnScrollStateChangedListener.SCROLL_STATE_IDLE);
+			}
+			StickyTrace.endSection();
 		}
 	}
 
@@ -1553,11 +2052,21 @@ public class ScrollViewEx extends FrameLayout {
 	@Override
 	protected void onDetachedFromWindow() {
 		super.onDetachedFromWindow();
+		recycleVelocityTracker();
+	}
 
+	@Override
+	public void onViewRemoved(View child) {
+		super.onViewRemoved(child);
+		if (child == mMeasuredChild) {
+			mMeasuredChild = null;
+		}
 	}
 
 	@Override
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		final View anchor = findScrollAnchor();
+		final int anchorStart = anchor != null ? getStart(anchor) : 0;
 		super.onLayout(changed, l, t, r, b);
 		mIsLayoutDirty = false;
 		// Give a child focus if it needs it
@@ -1568,25 +2077,66 @@ public class ScrollViewEx extends FrameLayout {
 
 		if (!wasLaidOut) {
 			if (mSavedState != null) {
-				setScrollY(mSavedState.scrollPosition);
+				setScrollPosition(mSavedState.scrollPosition);
 				mSavedState = null;
 			} // mScrollY default value is "0"
 
-			final int childHeight = (getChildCount() > 0) ? getChildAt(0).getMeasuredHeight() : 0;
-			final int scrollRange = Math.max(0,
-					childHeight - (b - t - getPaddingBottom() - getPaddingTop()));
+			final int scrollRange;
+			if (getChildCount() == 0) {
+				scrollRange = 0;
+			} else if (isHorizontal()) {
+				scrollRange = Math.max(0, getChildAt(0).getMeasuredWidth()
+						- (r - l - getPaddingLeft() - getPaddingRight()));
+			} else {
+				scrollRange = Math.max(0, getChildAt(0).getMeasuredHeight()
+						- (b - t - getPaddingBottom() - getPaddingTop()));
+			}
 
 			// Don't forget to clamp
-			if (getScrollY() > scrollRange) {
-				setScrollY(scrollRange);
-			} else if (getScrollY() < 0) {
-				setScrollY(0);
+			if (getScrollPosition() > scrollRange) {
+				setScrollPosition(scrollRange);
+			} else if (getScrollPosition() < 0) {
+				setScrollPosition(0);
 			}
 		}
 
 		// Calling this with the present values causes it to re-claim them
-		scrollTo(getScrollX(), getScrollY());
+		int position = getScrollPosition();
+		if (anchor != null && anchor.getParent() == getChildAt(0)) {
+			position += getStart(anchor) - anchorStart;
+		}
+		if (isHorizontal()) {
+			scrollTo(position, getScrollY());
+		} else {
+			scrollTo(getScrollX(), position);
+		}
 		wasLaidOut = true;
+
+		if (mVisibleRangeTracker != null && getChildCount() > 0) {
+			mVisibleRangeTracker.setBounds(getChildAt(0));
+			updateVisibleRange();
+		}
+	}
+
+	/**
+	 * @return the first child of the content that is in the viewport before layout, or null if
+	 * the scroll position should be kept as is
+	 */
+	private View findScrollAnchor() {
+		if (!mScrollAnchoringEnabled || !wasLaidOut || mChildToScrollTo != null || getScrollPosition() <= 0
+				|| !mScroller.isFinished() || getChildCount() == 0
+				|| !(getChildAt(0) instanceof ViewGroup)) {
+			return null;
+		}
+		final ViewGroup content = (ViewGroup) getChildAt(0);
+		final int viewportStart = getScrollPosition() - getStart(content);
+		for (int i = 0; i < content.getChildCount(); i++) {
+			final View child = content.getChildAt(i);
+			if (child.getVisibility() != View.GONE && getEnd(child) > viewportStart) {
+				return child;
+			}
+		}
+		return null;
 	}
 
 	@Override
@@ -1611,7 +2161,7 @@ public class ScrollViewEx extends FrameLayout {
 	/**
 	 * Return true if child is a descendant of parent, (or equal to the parent).
 	 */
-	private static boolean isViewDescendantOf(View child, View parent) {
+	static boolean isViewDescendantOf(View child, View parent) {
 		if (child == parent) {
 			return true;
 		}
@@ -1623,19 +2173,29 @@ public class ScrollViewEx extends FrameLayout {
 	/**
 	 * Fling the scroll view
 	 *
-	 * @param velocityY The initial velocity in the Y direction. Positive
+	 * @param velocityY The initial velocity along the scrolling axis. Positive
 	 *                  numbers mean that the finger/cursor is moving down the screen,
 	 *                  which means we want to scroll towards the top.
 	 */
 	public void fling(int velocityY) {
 		if (getChildCount() > 0) {
-			int height = getHeight() - getPaddingBottom() - getPaddingTop();
-			int bottom = getChildAt(0).getHeight();
+			StickyTrace.beginSection(StickyTrace.SECTION_FLING);
+			StickyTrace.counter(StickyTrace.COUNTER_FLING_VELOCITY, velocityY);
+			final int length = getViewportLength();
 			onScrollStateChanged(false);
-			mScroller.fling(getScrollX(), getScrollY(), 0, velocityY, 0, 0, 0,
-					Math.max(0, bottom - height), 0, height / 2);
+			if (isHorizontal()) {
+				mScroller.fling(getScrollX(), getScrollY(), velocityY, 0, 0, getScrollRange(), 0, 0,
+						length / 2, 0);
+			} else {
+				mScroller.fling(getScrollX(), getScrollY(), 0, velocityY, 0, 0, 0, getScrollRange(),
+						0, length / 2);
+			}
+			mIsWheelScrolling = false;
+			setScrollState(OnScrollStateChangedListener.SCROLL_STATE_SETTLING);
+			dispatchFlingSettlePredicted(getScrollerFinalPosition(), getScrollRange());
 
 			ViewCompat.postInvalidateOnAnimation(this);
+			StickyTrace.endSection();
 		}
 	}
 
@@ -1650,9 +2210,12 @@ public class ScrollViewEx extends FrameLayout {
 
 		recycleVelocityTracker();
 
-		if (mEdgeGlowTop != null) {
-			mEdgeGlowTop.onRelease();
-			mEdgeGlowBottom.onRelease();
+		setScrollState(mScroller.isFinished() ? OnScrollStateChangedListener.SCROLL_STATE_IDLE
+				: OnScrollStateChangedListener.SCROLL_STATE_SETTLING);
+
+		if (mEdgeGlowStart != null) {
+			mEdgeGlowStart.onRelease();
+			mEdgeGlowEnd.onRelease();
 		}
 
 	}
@@ -1679,14 +2242,14 @@ public class ScrollViewEx extends FrameLayout {
 	@Override
 	public void setOverScrollMode(int mode) {
 		if (mode != OVER_SCROLL_NEVER) {
-			if (mEdgeGlowTop == null) {
+			if (mEdgeGlowStart == null) {
 				Context context = getContext();
-				mEdgeGlowTop = new EdgeEffect(context);
-				mEdgeGlowBottom = new EdgeEffect(context);
+				mEdgeGlowStart = new EdgeEffect(context);
+				mEdgeGlowEnd = new EdgeEffect(context);
 			}
 		} else {
-			mEdgeGlowTop = null;
-			mEdgeGlowBottom = null;
+			mEdgeGlowStart = null;
+			mEdgeGlowEnd = null;
 		}
 		super.setOverScrollMode(mode);
 	}
@@ -1694,20 +2257,22 @@ public class ScrollViewEx extends FrameLayout {
 	@Override
 	public void draw(Canvas canvas) {
 		super.draw(canvas);
-		if (mEdgeGlowTop != null) {
+		if (mEdgeGlowStart != null && isHorizontal()) {
+			drawHorizontalEdgeGlows(canvas);
+		} else if (mEdgeGlowStart != null) {
 			final int scrollY = getScrollY();
-			if (!mEdgeGlowTop.isFinished()) {
+			if (!mEdgeGlowStart.isFinished()) {
 				final int restoreCount = canvas.save();
 				final int width = getWidth() - getPaddingLeft() - getPaddingRight();
 
 				canvas.translate(getPaddingLeft(), Math.min(0, scrollY));
-				mEdgeGlowTop.setSize(width, getHeight());
-				if (mEdgeGlowTop.draw(canvas)) {
+				mEdgeGlowStart.setSize(width, getHeight());
+				if (mEdgeGlowStart.draw(canvas)) {
 					ViewCompat.postInvalidateOnAnimation(this);
 				}
 				canvas.restoreToCount(restoreCount);
 			}
-			if (!mEdgeGlowBottom.isFinished()) {
+			if (!mEdgeGlowEnd.isFinished()) {
 				final int restoreCount = canvas.save();
 				final int width = getWidth() - getPaddingLeft() - getPaddingRight();
 				final int height = getHeight();
@@ -1715,8 +2280,8 @@ public class ScrollViewEx extends FrameLayout {
 				canvas.translate(-width + getPaddingLeft(),
 						Math.max(getScrollRange(), scrollY) + height);
 				canvas.rotate(180, width, 0);
-				mEdgeGlowBottom.setSize(width, height);
-				if (mEdgeGlowBottom.draw(canvas)) {
+				mEdgeGlowEnd.setSize(width, height);
+				if (mEdgeGlowEnd.draw(canvas)) {
 					ViewCompat.postInvalidateOnAnimation(this);
 				}
 				canvas.restoreToCount(restoreCount);
@@ -1724,6 +2289,35 @@ public class ScrollViewEx extends FrameLayout {
 		}
 	}
 
+	private void drawHorizontalEdgeGlows(Canvas canvas) {
+		final int scrollX = getScrollX();
+		if (!mEdgeGlowStart.isFinished()) {
+			final int restoreCount = canvas.save();
+			final int height = getHeight() - getPaddingTop() - getPaddingBottom();
+
+			canvas.rotate(270);
+			canvas.translate(-height + getPaddingTop(), Math.min(0, scrollX));
+			mEdgeGlowStart.setSize(height, getWidth());
+			if (mEdgeGlowStart.draw(canvas)) {
+				ViewCompat.postInvalidateOnAnimation(this);
+			}
+			canvas.restoreToCount(restoreCount);
+		}
+		if (!mEdgeGlowEnd.isFinished()) {
+			final int restoreCount = canvas.save();
+			final int width = getWidth();
+			final int height = getHeight() - getPaddingTop() - getPaddingBottom();
+
+			canvas.rotate(90);
+			canvas.translate(-getPaddingTop(), -(Math.max(getScrollRange(), scrollX) + width));
+			mEdgeGlowEnd.setSize(height, width);
+			if (mEdgeGlowEnd.draw(canvas)) {
+				ViewCompat.postInvalidateOnAnimation(this);
+			}
+			canvas.restoreToCount(restoreCount);
+		}
+	}
+
 	private static int clamp(int n, int my, int child) {
 		if (my >= child || n < 0) {
             /* my >= child is this case:
@@ -1765,7 +2359,7 @@ public class ScrollViewEx extends FrameLayout {
 	protected Parcelable onSaveInstanceState() {
 		Parcelable superState = super.onSaveInstanceState();
 		SavedState ss = new SavedState(superState);
-		ss.scrollPosition = getScrollY();
+		ss.scrollPosition = getScrollPosition();
 		return ss;
 	}
 
@@ -0,0 +1,37 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+/**
+ * Optional additions to {@link StickyContentView} for scroll state callbacks, fling settle
+ * predictions, wheel handoff and programmatic scrolls across the combined range. Content views
+ * that only implement {@link StickyContentView} keep working: they report an idle state and no
+ * scroll range, and are scrolled with {@link android.view.View#scrollBy(int, int)}.
+ */
+public interface StickyContentViewEx extends StickyContentView {
+
+	/**
+	 * @return one of the {@link OnScrollStateChangedListener} states
+	 */
+	public int getScrollState();
+
+	public int getScrollRange();
+
+	public int getFlingFinalY();
+
+	/**
+	 * Scrolls the content by a wheel delta the sticky scroll view could not consume.
+	 *
+	 * @return whether the content scrolled
+	 */
+	public boolean wheelScrollBy(int delta);
+
+	/**
+	 * @return the scroll position of the content, in pixels from its top
+	 */
+	public int getContentScrollOffset();
+
+	/**
+	 * Scrolls the content immediately, used by programmatic scrolls of a {@link StickyScrollView}.
+	 */
+	public void scrollContentBy(int dy);
+
+}
@@ -0,0 +1,431 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyGeometry;
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+
+/**
+ * Horizontal counterpart of {@link StickyScrollView}: the view set with the {@code stickyView}
+ * attribute sticks to the left edge, for example the first column of a table. It scrolls with the
+ * {@link ScrollViewEx} engine turned to the horizontal axis and uses the same {@link StickyGeometry}
+ * and {@link StickyHandoff} rules. A drag or fling that reaches the right end continues in the
+ * {@link StickyContentView} under the touch (or the middle of the view) when that view scrolls
+ * horizontally, like a {@link ContentScrollView} with {@code android:orientation="horizontal"},
+ * and comes back to this view when the content is dragged or flung back to its start.
+ * <p/>
+ * The stuck view is raised with a translation Z so it is drawn above its siblings on API 21 and
+ * later; on older versions place it after the views it should cover.
+ */
+public class StickyHorizontalScrollView extends ScrollViewEx implements StickyMainContentScrollListener {
+
+	private static final int INVALID_POINTER = -1;
+
+	/**
+	 * The gesture scrolls this view.
+	 */
+	private static final int HANDOFF_NONE = 0;
+
+	/**
+	 * The drag continues in the content view, the touch events are passed on to it.
+	 */
+	private static final int HANDOFF_CONTENT_DRAG = 1;
+
+	/**
+	 * The content view flings with the velocity this view had left at its end.
+	 */
+	private static final int HANDOFF_CONTENT_FLING = 2;
+
+	private final boolean stickyModeEnabled;
+	private final int touchSlop;
+
+	private int stickyViewId;
+	private View stickyView;
+	private int stickyViewLeft;
+	private int stickOffsetX;
+	private boolean isStick;
+
+	private int handoffState = HANDOFF_NONE;
+	private StickyContentView contentView;
+	private StickyContentView gestureTarget;
+	private boolean hasGestureTouch;
+	private float startX;
+	private float startY;
+
+	private final MotionEventSnapshot downMotionEvent = new MotionEventSnapshot();
+	private final MotionEventSnapshot lastMotionEvent = new MotionEventSnapshot();
+
+	/**
+	 * Event, velocity tracker and pointer of a drag changing hands, picked up with the next touch
+	 * event.
+	 */
+	private MotionEvent needToHandleEvent;
+	private VelocityTracker velocityTracker;
+	private int activePointerId = INVALID_POINTER;
+
+	public StickyHorizontalScrollView(Context context) {
+		this(context, null);
+	}
+
+	public StickyHorizontalScrollView(Context context, AttributeSet attrs) {
+		this(context, attrs, android.R.attr.horizontalScrollViewStyle);
+	}
+
+	public StickyHorizontalScrollView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+		setOrientation(HORIZONTAL);
+
+		TypedArray a = context.obtainStyledAttributes(attrs,
+				R.styleable.StickyHorizontalScrollView, defStyle, 0);
+
+		stickOffsetX = a.getDimensionPixelSize(
+				R.styleable.StickyHorizontalScrollView_stickOffsetX, 0);
+		stickyViewId = a.getResourceId(R.styleable.StickyHorizontalScrollView_stickyView, 0);
+		stickyModeEnabled = a.getBoolean(R.styleable.StickyHorizontalScrollView_stickyModeEnabled, true);
+
+		a.recycle();
+
+		touchSlop = ScrollConfiguration.get(context).touchSlop;
+	}
+
+	public void setStickyViewId(int stickyViewId) {
+		if (stickyView != null) {
+			stopStick();
+		}
+		this.stickyViewId = stickyViewId;
+		findStickyView();
+		doTheStickyThing();
+	}
+
+	public void setStickyOffsetX(int stickOffsetX) {
+		this.stickOffsetX = stickOffsetX;
+		doTheStickyThing();
+	}
+
+	@Override
+	public void addView(View child) {
+		super.addView(child);
+		findStickyView();
+	}
+
+	@Override
+	public void addView(View child, int index) {
+		super.addView(child, index);
+		findStickyView();
+	}
+
+	@Override
+	public void addView(View child, int index, ViewGroup.LayoutParams params) {
+		super.addView(child, index, params);
+		findStickyView();
+	}
+
+	@Override
+	public void addView(View child, int width, int height) {
+		super.addView(child, width, height);
+		findStickyView();
+	}
+
+	@Override
+	public void addView(View child, ViewGroup.LayoutParams params) {
+		super.addView(child, params);
+		findStickyView();
+	}
+
+	private void findStickyView() {
+		stickyView = stickyViewId != 0 ? findViewById(stickyViewId) : null;
+		updateStickyGeometry();
+	}
+
+	private void updateStickyGeometry() {
+		if (stickyView == null || getChildCount() == 0) {
+			return;
+		}
+		View v = stickyView;
+		int left = v.getLeft();
+		while (v.getParent() != getChildAt(0)) {
+			v = (View) v.getParent();
+			left += v.getLeft();
+		}
+		stickyViewLeft = left;
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		super.onLayout(changed, l, t, r, b);
+		updateStickyGeometry();
+		doTheStickyThing();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		changeHandoff(HANDOFF_NONE, null);
+		recyclePendingDrag();
+		downMotionEvent.clear();
+		lastMotionEvent.clear();
+		gestureTarget = null;
+		hasGestureTouch = false;
+	}
+
+	@Override
+	public boolean onInterceptTouchEvent(MotionEvent ev) {
+		final int action = ev.getActionMasked();
+		lastMotionEvent.set(ev);
+		if (action == MotionEvent.ACTION_DOWN) {
+			if (handoffState == HANDOFF_CONTENT_FLING) {
+				contentView.stopFling();
+				changeHandoff(HANDOFF_NONE, contentView);
+			}
+			downMotionEvent.set(ev);
+			startX = ev.getX();
+			startY = ev.getY();
+			hasGestureTouch = true;
+			gestureTarget = null;
+		}
+		if (handoffState == HANDOFF_CONTENT_DRAG) {
+			return true;
+		}
+		if (action == MotionEvent.ACTION_MOVE && !canScrollHorizontally(1)
+				&& StickyHandoff.getInterceptDirection(startX - ev.getX(), touchSlop)
+				== StickyHandoff.DRAG_BACK) {
+			// At the end a drag back belongs to the content until it is back at its start.
+			final StickyContentView content = findGestureTarget(-1);
+			if (content != null) {
+				takeDragForContent(content, null, ev.getPointerId(0), downMotionEvent.obtain());
+				return true;
+			}
+		}
+		return super.onInterceptTouchEvent(ev);
+	}
+
+	@Override
+	public boolean onTouchEvent(MotionEvent ev) {
+		final int action = ev.getActionMasked();
+		lastMotionEvent.set(ev);
+		boolean handled = false;
+		if (handoffState == HANDOFF_CONTENT_DRAG) {
+			if (needToHandleEvent != null) {
+				contentView.startScrollByEvents(velocityTracker, needToHandleEvent, ev, activePointerId);
+				velocityTracker = null;
+				recyclePendingDrag();
+			} else {
+				contentView.onTranslatedTouchEvent(ev);
+			}
+			handled = true;
+		} else if (needToHandleEvent != null) {
+			// The content handed the drag back.
+			startScrollByMotionEvents(velocityTracker, needToHandleEvent, ev, activePointerId);
+			velocityTracker = null;
+			recyclePendingDrag();
+			handled = true;
+		}
+		if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+			recyclePendingDrag();
+			if (handoffState == HANDOFF_CONTENT_DRAG) {
+				changeHandoff(HANDOFF_NONE, contentView);
+			}
+			hasGestureTouch = false;
+		}
+		return handled || super.onTouchEvent(ev);
+	}
+
+	@Override
+	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+		super.onScrollChanged(l, t, oldl, oldt);
+		doTheStickyThing();
+		if (isBeingDragged()) {
+			if (StickyHandoff.shouldRedirectDragToContent(l, oldl, canScrollHorizontally(1))) {
+				redirectDragToContent();
+			}
+		} else if (!isWheelScrolling()) {
+			doTheFlyingThing(l, oldl);
+		}
+	}
+
+	/**
+	 * A drag pushing against the right end produces no scroll change, so it is passed on from
+	 * here.
+	 */
+	@Override
+	protected void onDragClamped(int deltaY) {
+		if (deltaY > 0 && !canScrollHorizontally(1)) {
+			redirectDragToContent();
+		}
+	}
+
+	private void redirectDragToContent() {
+		if (handoffState == HANDOFF_CONTENT_DRAG) {
+			return;
+		}
+		final StickyContentView content = findGestureTarget(1);
+		if (content != null) {
+			final VelocityTracker tracker = snatchVelocityTracker();
+			final int pointerId = getActivePointerId();
+			endDrag();
+			takeDragForContent(content, tracker, pointerId, lastMotionEvent.obtain());
+		}
+	}
+
+	private void takeDragForContent(StickyContentView content, VelocityTracker tracker, int pointerId,
+	                                MotionEvent event) {
+		recyclePendingDrag();
+		velocityTracker = tracker;
+		activePointerId = pointerId;
+		needToHandleEvent = event;
+		changeHandoff(HANDOFF_CONTENT_DRAG, content);
+	}
+
+	private void doTheFlyingThing(int left, int oldLeft) {
+		if (handoffState != HANDOFF_NONE
+				|| !StickyGeometry.shouldFlingContent(left, oldLeft, getScrollRange())) {
+			return;
+		}
+		final StickyContentView content = findGestureTarget(1);
+		if (content != null) {
+			final float velocity = getCurrentFlingVelocity();
+			stopFling();
+			changeHandoff(HANDOFF_CONTENT_FLING, content);
+			content.startFling((int) -velocity);
+		}
+	}
+
+	@Override
+	public void onScrollableScroll(View v, int position, int oldPosition, int t, int oldT) {
+		if (handoffState == HANDOFF_CONTENT_DRAG && needToHandleEvent == null
+				&& StickyHandoff.isContentBackAtStart(position, oldPosition, t, oldT)
+				&& !canScrollHorizontally(1) && !v.canScrollHorizontally(-1)) {
+			// Dragged back to its start, the rest of the drag scrolls this view.
+			velocityTracker = contentView.snatchVelocityTracker();
+			activePointerId = contentView.getActivePointerId();
+			needToHandleEvent = lastMotionEvent.obtain();
+			contentView.stopScroll();
+			changeHandoff(HANDOFF_NONE, contentView);
+		}
+	}
+
+	@Override
+	public void onScrollableFling(View v, int position, int oldPosition, int t, int oldT, float velocity) {
+		if (handoffState != HANDOFF_CONTENT_DRAG && !isBeingDragged()
+				&& StickyHandoff.isContentBackAtStart(position, oldPosition, t, oldT)
+				&& !canScrollHorizontally(1) && !v.canScrollHorizontally(-1)) {
+			// Flung back to its start, the rest of the fling scrolls this view.
+			changeHandoff(HANDOFF_NONE, (StickyContentView) v);
+			stopAndFly((int) -velocity);
+		}
+	}
+
+	@Override
+	public void onScrollableScrollStateChanged(View v, int scrollState) {
+		if (handoffState == HANDOFF_CONTENT_FLING
+				&& scrollState == OnScrollStateChangedListener.SCROLL_STATE_IDLE) {
+			changeHandoff(HANDOFF_NONE, contentView);
+		}
+	}
+
+	@Override
+	public void onScrollableFlingStarted(View v, int finalPosition) {
+	}
+
+	private void changeHandoff(int state, StickyContentView content) {
+		if (content != contentView) {
+			if (contentView != null) {
+				contentView.setStickyMainContentScrollListener(null);
+			}
+			contentView = content;
+			if (contentView != null) {
+				contentView.setStickyMainContentScrollListener(this);
+			}
+		}
+		handoffState = state;
+	}
+
+	private void recyclePendingDrag() {
+		if (needToHandleEvent != null) {
+			needToHandleEvent.recycle();
+			needToHandleEvent = null;
+		}
+		if (velocityTracker != null) {
+			velocityTracker.recycle();
+			velocityTracker = null;
+		}
+		activePointerId = INVALID_POINTER;
+	}
+
+	/**
+	 * Finds the content view for the current gesture, under the touch or, for gestures not started
+	 * by a touch, the middle of this view. The result is reused until the next touch goes down.
+	 *
+	 * @param direction 0 for any content view, otherwise the direction it must be able to scroll in
+	 */
+	private StickyContentView findGestureTarget(int direction) {
+		if (gestureTarget == null) {
+			final int x = hasGestureTouch ? (int) startX : getWidth() / 2;
+			final int y = hasGestureTouch ? (int) startY : getHeight() / 2;
+			gestureTarget = findContent(this, false, x, y);
+		}
+		return gestureTarget == null || direction == 0
+				|| ((View) gestureTarget).canScrollHorizontally(direction) ? gestureTarget : null;
+	}
+
+	private static StickyContentView findContent(View v, boolean checkV, int x, int y) {
+		if (checkV && v instanceof StickyContentView) {
+			return (StickyContentView) v;
+		}
+		if (v instanceof ViewGroup) {
+			final ViewGroup group = (ViewGroup) v;
+			final int scrollX = v.getScrollX();
+			final int scrollY = v.getScrollY();
+			// Count backwards - let topmost views consume scroll distance first.
+			for (int i = group.getChildCount() - 1; i >= 0; i--) {
+				final View child = group.getChildAt(i);
+				if (child.getVisibility() == View.VISIBLE
+						&& x + scrollX >= child.getLeft() && x + scrollX < child.getRight()
+						&& y + scrollY >= child.getTop() && y + scrollY < child.getBottom()) {
+					StickyContentView content = findContent(child, true, x + scrollX - child.getLeft(),
+							y + scrollY - child.getTop());
+					if (content != null) {
+						return content;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private void doTheStickyThing() {
+		if (!stickyModeEnabled || stickyView == null) {
+			return;
+		}
+		final int padding = getClipToPaddingCompat() ? 0 : getPaddingLeft();
+		if (StickyGeometry.isStuck(stickyViewLeft, getScrollX(), padding, stickOffsetX)) {
+			if (!isStick) {
+				isStick = true;
+				ViewCompat.setTranslationZ(stickyView, 1);
+			}
+			stickyView.setTranslationX(StickyGeometry.getStickTranslation(stickyViewLeft, getScrollX(),
+					padding, stickOffsetX));
+		} else if (isStick) {
+			stopStick();
+		}
+	}
+
+	private void stopStick() {
+		isStick = false;
+		ViewCompat.setTranslationZ(stickyView, 0);
+		stickyView.setTranslationX(0);
+	}
+
+	private boolean getClipToPaddingCompat() {
+		// getClipToPadding() is API 21, views clip to padding by default.
+		return android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.LOLLIPOP || getClipToPadding();
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.widget.ListView;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+
+/**
+ * {@link ListView} usable as the content of a {@link StickyScrollView}. Scrolls are reported as
+ * pixel positions, estimated from the average height of the visible children. Handed over
+ * drags and flings use {@link ListView#scrollListBy(int)} and {@link ListView#fling(int)} where
+ * available, and a timed {@link ListView#smoothScrollBy(int, int)} before that.
+ */
+public class StickyListView extends ListView implements StickyContentViewEx {
+
+	private int lastScrollOffset;
+
+	private final ContentHandoffHelper handoffHelper = new ContentHandoffHelper(this) {
+		@Override
+		void scrollContentBy(int dy) {
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+				scrollListBy(dy);
+			} else {
+				smoothScrollBy(dy, 0);
+			}
+		}
+
+		@Override
+		void flingContent(int velocityY) {
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+				StickyListView.this.fling(velocityY);
+			} else {
+				smoothScrollBy(handoffHelper.getFlingDistance(), handoffHelper.getFlingDuration());
+			}
+		}
+
+		@Override
+		void stopContentFling() {
+			// An empty smooth scroll ends the running fling.
+			smoothScrollBy(0, 0);
+		}
+
+		@Override
+		int getContentScrollOffset() {
+			if (getChildCount() == 0) {
+				return 0;
+			}
+			return getFirstVisiblePosition() * getAverageChildHeight() - getChildAt(0).getTop() + getPaddingTop();
+		}
+
+		@Override
+		int getContentScrollRange() {
+			return getScrollRange();
+		}
+	};
+
+	public StickyListView(Context context) {
+		super(context);
+	}
+
+	public StickyListView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public StickyListView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+	}
+
+	private int getAverageChildHeight() {
+		final int count = getChildCount();
+		if (count == 0) {
+			return 0;
+		}
+		return (getChildAt(count - 1).getBottom() - getChildAt(0).getTop()) / count;
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		handoffHelper.trackTouch(ev);
+		return super.dispatchTouchEvent(ev);
+	}
+
+	/**
+	 * AbsListView calls this with placeholder values whenever its items scroll.
+	 */
+	@Override
+	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+		super.onScrollChanged(l, t, oldl, oldt);
+		final int position = handoffHelper.getContentScrollOffset();
+		if (position != lastScrollOffset) {
+			final int oldPosition = lastScrollOffset;
+			lastScrollOffset = position;
+			handoffHelper.onScrollChanged(position, oldPosition, StickyHandoff.NO_OFFSET,
+					StickyHandoff.NO_OFFSET);
+		}
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		handoffHelper.release();
+	}
+
+	@Override
+	public void setStickyMainContentScrollListener(StickyMainContentScrollListener stickyMainContentScrollListener) {
+		handoffHelper.setListener(stickyMainContentScrollListener);
+	}
+
+	@Override
+	public void scrollToTop() {
+		setSelection(0);
+	}
+
+	@Override
+	public void startScrollByEvents(VelocityTracker velocityTracker, MotionEvent prevEvent,
+	                                MotionEvent event, int pointerId) {
+		handoffHelper.startScrollByEvents(velocityTracker, prevEvent, event, pointerId);
+	}
+
+	@Override
+	public void startFling(int velocity) {
+		handoffHelper.fling(-velocity);
+	}
+
+	@Override
+	public boolean wheelScrollBy(int delta) {
+		return handoffHelper.wheelScrollBy(delta);
+	}
+
+	@Override
+	public void stopFling() {
+		handoffHelper.stopFling();
+	}
+
+	@Override
+	public void stopScroll() {
+		handoffHelper.stopScroll();
+	}
+
+	@Override
+	public boolean onTranslatedTouchEvent(MotionEvent event) {
+		return handoffHelper.onTranslatedTouchEvent(event) || onTouchEvent(event);
+	}
+
+	@Override
+	public VelocityTracker snatchVelocityTracker() {
+		return handoffHelper.snatchVelocityTracker();
+	}
+
+	@Override
+	public int getActivePointerId() {
+		return handoffHelper.getActivePointerId();
+	}
+
+	@Override
+	public int getScrollState() {
+		return handoffHelper.getScrollState();
+	}
+
+	/**
+	 * @return estimated scroll range in pixels
+	 */
+	@Override
+	public int getScrollRange() {
+		return Math.max(0, getCount() * getAverageChildHeight() - (getHeight() - getPaddingTop() - getPaddingBottom()));
+	}
+
+	@Override
+	public int getFlingFinalY() {
+		return handoffHelper.getFlingFinalY();
+	}
+
+	@Override
+	public int getContentScrollOffset() {
+		return handoffHelper.getContentScrollOffset();
+	}
+
+	@Override
+	public void scrollContentBy(int dy) {
+		handoffHelper.scrollContentBy(dy);
+	}
+
+}
@@ -11,4 +11,8 @@ public interface StickyMainContentScrollListener {
 
 	public void onScrollableScroll(View v, int position, int oldPosition, int t, int oldT);
 
+	public void onScrollableScrollStateChanged(View v, int scrollState);
+
+	public void onScrollableFlingStarted(View v, int finalPosition);
+
 }
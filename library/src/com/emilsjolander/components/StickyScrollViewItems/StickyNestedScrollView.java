@@ -0,0 +1,155 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.support.v4.widget.NestedScrollView;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+
+/**
+ * {@link NestedScrollView} usable as the content of a {@link StickyScrollView}. Handed over
+ * drags and flings use {@link NestedScrollView#scrollBy(int, int)} and
+ * {@link NestedScrollView#fling(int)}.
+ */
+public class StickyNestedScrollView extends NestedScrollView implements StickyContentViewEx {
+
+	private final ContentHandoffHelper handoffHelper = new ContentHandoffHelper(this) {
+		@Override
+		void scrollContentBy(int dy) {
+			scrollBy(0, dy);
+		}
+
+		@Override
+		void flingContent(int velocityY) {
+			StickyNestedScrollView.this.fling(velocityY);
+		}
+
+		@Override
+		void stopContentFling() {
+			// Replaces the running fling with an empty scroll.
+			smoothScrollBy(0, 0);
+		}
+
+		@Override
+		int getContentScrollOffset() {
+			return getScrollY();
+		}
+
+		@Override
+		int getContentScrollRange() {
+			return getScrollRange();
+		}
+	};
+
+	public StickyNestedScrollView(Context context) {
+		super(context);
+	}
+
+	public StickyNestedScrollView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public StickyNestedScrollView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		handoffHelper.trackTouch(ev);
+		return super.dispatchTouchEvent(ev);
+	}
+
+	@Override
+	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+		super.onScrollChanged(l, t, oldl, oldt);
+		handoffHelper.onScrollChanged(t, oldt, StickyHandoff.NO_OFFSET, StickyHandoff.NO_OFFSET);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		handoffHelper.release();
+	}
+
+	@Override
+	public void setStickyMainContentScrollListener(StickyMainContentScrollListener stickyMainContentScrollListener) {
+		handoffHelper.setListener(stickyMainContentScrollListener);
+	}
+
+	@Override
+	public void scrollToTop() {
+		scrollTo(0, 0);
+	}
+
+	@Override
+	public void startScrollByEvents(VelocityTracker velocityTracker, MotionEvent prevEvent,
+	                                MotionEvent event, int pointerId) {
+		handoffHelper.startScrollByEvents(velocityTracker, prevEvent, event, pointerId);
+	}
+
+	@Override
+	public void startFling(int velocity) {
+		handoffHelper.fling(-velocity);
+	}
+
+	@Override
+	public boolean wheelScrollBy(int delta) {
+		return handoffHelper.wheelScrollBy(delta);
+	}
+
+	@Override
+	public void stopFling() {
+		handoffHelper.stopFling();
+	}
+
+	@Override
+	public void stopScroll() {
+		handoffHelper.stopScroll();
+	}
+
+	@Override
+	public boolean onTranslatedTouchEvent(MotionEvent event) {
+		return handoffHelper.onTranslatedTouchEvent(event) || onTouchEvent(event);
+	}
+
+	@Override
+	public VelocityTracker snatchVelocityTracker() {
+		return handoffHelper.snatchVelocityTracker();
+	}
+
+	@Override
+	public int getActivePointerId() {
+		return handoffHelper.getActivePointerId();
+	}
+
+	@Override
+	public int getScrollState() {
+		return handoffHelper.getScrollState();
+	}
+
+	@Override
+	public int getScrollRange() {
+		if (getChildCount() == 0) {
+			return 0;
+		}
+		return Math.max(0, getChildAt(0).getHeight() - (getHeight() - getPaddingTop() - getPaddingBottom()));
+	}
+
+	@Override
+	public int getFlingFinalY() {
+		return handoffHelper.getFlingFinalY();
+	}
+
+	@Override
+	public int getContentScrollOffset() {
+		return handoffHelper.getContentScrollOffset();
+	}
+
+	@Override
+	public void scrollContentBy(int dy) {
+		handoffHelper.scrollContentBy(dy);
+	}
+
+}
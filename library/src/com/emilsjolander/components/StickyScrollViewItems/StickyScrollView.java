@@ -1,22 +1,36 @@
 package com.emilsjolander.components.StickyScrollViewItems;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.Region;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
-import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewParent;
 import android.view.ViewPropertyAnimator;
+import android.view.animation.AnimationUtils;
 
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyGeometry;
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+import com.emilsjolander.components.StickyScrollViewItems.core.TransitionTrace;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Queue;
 
 import uk.co.chrisjenx.paralloid.ParallaxViewController;
@@ -27,18 +41,19 @@ import uk.co.chrisjenx.paralloid.transform.Transformer;
  * @author Emil Sj�lander - sjolander.emil@gmail.com
  */
 public class StickyScrollView extends ScrollViewEx implements StickyMainContentScrollListener,
-		Parallaxor {
+		StickyContentViewEx, Parallaxor {
 
 	private static final String TAG = StickyScrollView.class.getSimpleName();
 
 	/**
 	 * Default height of the shadow peeking out below the stuck view.
 	 */
+	private static final int DEFAULT_SHADOW_HEIGHT = 10; // dp
 
 	private OnSizeChangedListener onSizeChangedListener;
 
 	private ViewPropertyAnimator currentAnimator;
-	private final int animationDuration;
+	private int animationDuration = -1;
 	private View stickyView;
 
 	private final boolean stickyModeEnabled;
@@ -46,6 +61,25 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	private boolean isStick;
 	private boolean isStickyHidden;
 	private StickyContentView mainContentView;
+	private StickyContentView activeContentView;
+
+	/**
+	 * Handoff chain links: the nearest {@link StickyContentView} descendants, collected on layout,
+	 * and the listener of the sticky scroll view this one is the content of, if any. A content
+	 * view that is itself a StickyScrollView continues the chain with its own links.
+	 */
+	private StickyContentView[] contentLinks = new StickyContentView[0];
+	private int contentLinkCount;
+	private StickyMainContentScrollListener parentScrollListener;
+
+	/**
+	 * Running {@link #scrollToContentOffset(int, boolean)} animation, the content view it scrolls
+	 * and how far it has scrolled that content so far. Handoff is suspended while it runs.
+	 */
+	private ValueAnimator contentScrollAnimator;
+	private StickyContentView contentScrollTarget;
+	private int contentScrollApplied;
+	private boolean isApplyingContentScroll;
 	private StickyScrollListener stickyScrollListener;
 
 	private Queue<MotionEvent> interceptedEvents;
@@ -55,11 +89,92 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	private int stickOffsetY;
 
+	private Drawable shadowDrawable;
+	private int shadowHeight;
+	private int shadowAlpha = -1;
+
+	/**
+	 * Geometry of the sticky view and the sticky footer relative to the only child, cached on
+	 * layout so that scrolling and drawing do not walk the hierarchy every frame.
+	 */
+	private int stuckLeft;
+	private int stickyViewTop;
+	private int stuckWidth;
+	private int stickyFooterTop;
+	private int stickyFooterLeft;
+
+	/**
+	 * Headers stacked below the sticky view. Each one sticks at {@code stickOffsetY} plus the
+	 * heights of the sticky view and the stacked headers before it; these offsets are kept as a
+	 * prefix sum that is only rebuilt when one of the heights changes.
+	 */
+	private int[] stackedStickyViewIds;
+	private View[] stackedStickyViews;
+	private int[] stackedTops;
+	private int[] stackedLefts;
+	private int[] stackedHeights;
+	private int[] stackedOffsets;
+	private boolean[] stackedStuck;
+	private int stackedBaseHeight = -1;
+
+	private View stickyFooterView;
+	private int stickyFooterViewId;
+	private int stickFooterOffsetY;
+	private boolean isFooterPinned;
+
 	private int stickyViewId;
 
+	/**
+	 * Quick-return mode: while stuck, the header is pushed up by the distance scrolled down and
+	 * pulled back by the distance scrolled up, and settles to fully shown or hidden once scrolling
+	 * goes idle.
+	 */
+	private boolean quickReturnEnabled;
+	private int quickReturnOffset;
+	private boolean quickReturnHidden;
+	private int settleFromOffset;
+	private int settleToOffset;
+	private long settleStartTime;
+	private boolean isQuickReturnSettling;
+
+	private final Runnable quickReturnSettleRunnable = new Runnable() {
+		@Override
+		public void run() {
+			if (!isQuickReturnSettling) {
+				return;
+			}
+			float fraction = (AnimationUtils.currentAnimationTimeMillis() - settleStartTime) /
+					(float) getAnimationDuration();
+			if (fraction >= 1) {
+				fraction = 1;
+				isQuickReturnSettling = false;
+			} else {
+				ViewCompat.postOnAnimation(StickyScrollView.this, this);
+			}
+			// Decelerate interpolation, inlined to avoid an interpolator per settle.
+			fraction = 1 - (1 - fraction) * (1 - fraction);
+			setQuickReturnOffset(settleFromOffset + (int) ((settleToOffset - settleFromOffset) * fraction));
+		}
+	};
+
+	/**
+	 * Snapshot mode: a constant sticky view is rendered once into a bitmap that is drawn at the
+	 * stuck position, while the stuck area is clipped out of the content so the view itself is not
+	 * drawn. The tag flags of the README, {@code -nonconstant} and {@code -hastransparancy}, opt a
+	 * view out, the content below a transparent view would be clipped out with it.
+	 */
+	private boolean stickySnapshotEnabled;
+	private boolean stickyNonConstant;
+	private boolean stickyHasTransparency;
+	private boolean isSnapshotShown;
+	private boolean snapshotDirty;
+	private Bitmap stickySnapshot;
+	private final Canvas snapshotCanvas = new Canvas();
+	private final Paint snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
 	private int touchSlop;
 
-	private MotionEvent lastMotionEvent;
+	private final MotionEventSnapshot lastMotionEvent = new MotionEventSnapshot();
 	private MotionEvent needToHandleEvent;
 	private VelocityTracker velocityTracker;
 	private int activePointerId;
@@ -69,8 +184,51 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	private float startYRelative;
 	private float startXRelative;
 
+	/**
+	 * The content view the current gesture is handed to, resolved once from the touch location
+	 * and kept for the rest of the drag, its fling and their handoff. Both are forgotten once the
+	 * combined state is idle again, or when a scroll not started by a touch begins.
+	 */
+	private StickyContentView gestureTarget;
+	private boolean hasGestureTouch;
+	private boolean isGestureTouchDown;
+
+	private int combinedScrollState = OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+
+	/**
+	 * Idle is reported one message later so that a handoff between this view and the content
+	 * view, which stops one scroller before starting the other, does not look like the end of
+	 * the gesture.
+	 */
+	private final Runnable dispatchIdleRunnable = new Runnable() {
+		@Override
+		public void run() {
+			if (resolveCombinedScrollState() == OnScrollStateChangedListener.SCROLL_STATE_IDLE &&
+					combinedScrollState != OnScrollStateChangedListener.SCROLL_STATE_IDLE) {
+				combinedScrollState = OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+				releaseGestureTarget();
+				dispatchCombinedScrollState(combinedScrollState);
+				settleQuickReturn();
+			}
+		}
+	};
+
 	ParallaxViewController parallaxViewController;
 
+	/**
+	 * Views registered for parallax. The controller cannot unregister a view, so when views in a
+	 * replaced content are dropped it is recreated with the remaining registrations.
+	 */
+	private final ArrayList<ParallaxRegistration> parallaxRegistrations = new ArrayList<>();
+
+	/**
+	 * The child seen by the last layout. When the content is replaced, references into the old
+	 * one are dropped.
+	 */
+	private View layoutContent;
+
+	private GestureTraceListener gestureTraceListener;
+
 	public StickyScrollView(Context context) {
 		this(context, null);
 	}
@@ -81,6 +239,8 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	public StickyScrollView(Context context, AttributeSet attrs, int defStyle) {
 		super(context, attrs, defStyle);
+		// The sticky logic works on the vertical axis, see StickyHorizontalScrollView.
+		setOrientation(VERTICAL);
 		setup();
 
 
@@ -91,30 +251,40 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 				R.styleable.StickyScrollView_stickOffsetY, 0);
 
 		stickyViewId = a.getResourceId(R.styleable.StickyScrollView_stickyView, 0);
+		stickyFooterViewId = a.getResourceId(R.styleable.StickyScrollView_stickyFooterView, 0);
+		stickFooterOffsetY = a.getDimensionPixelSize(
+				R.styleable.StickyScrollView_stickFooterOffsetY, 0);
 		stickyModeEnabled = a.getBoolean(R.styleable.StickyScrollView_stickyModeEnabled, true);
+		stickySnapshotEnabled = a.getBoolean(R.styleable.StickyScrollView_stickySnapshotEnabled, false);
+		quickReturnEnabled = a.getBoolean(R.styleable.StickyScrollView_quickReturnEnabled, false);
+		int stackedRes = a.getResourceId(R.styleable.StickyScrollView_stackedStickyViews, 0);
+		if (stackedRes != 0) {
+			TypedArray ids = context.getResources().obtainTypedArray(stackedRes);
+			int[] stackedIds = new int[ids.length()];
+			for (int i = 0; i < stackedIds.length; i++) {
+				stackedIds[i] = ids.getResourceId(i, 0);
+			}
+			ids.recycle();
+			setStackedStickyViewIds(stackedIds);
+		}
 
-		a.recycle();
-
+		shadowHeight = a.getDimensionPixelSize(R.styleable.StickyScrollView_stuckShadowHeight,
+				(int) (DEFAULT_SHADOW_HEIGHT * context.getResources().getDisplayMetrics().density + 0.5f));
+		shadowDrawable = a.getDrawable(R.styleable.StickyScrollView_stuckShadowDrawable);
 
-		animationDuration = context.getResources().getInteger(android.R.integer.config_mediumAnimTime);
+		a.recycle();
 
 	}
 
 	public void setup() {
-		interceptedEvents = new LinkedList<>();
-		final ViewConfiguration configuration = ViewConfiguration.get(getContext());
-		touchSlop = configuration.getScaledTouchSlop();
-
-		parallaxViewController = ParallaxViewController.wrap(this);
+		touchSlop = ScrollConfiguration.get(getContext()).touchSlop;
 	}
 
 	@Override
 	protected void onDetachedFromWindow() {
 		super.onDetachedFromWindow();
-		if (lastMotionEvent != null) {
-			lastMotionEvent.recycle();
-			lastMotionEvent = null;
-		}
+		stopContentScrollAnimation();
+		lastMotionEvent.clear();
 		if (needToHandleEvent != null) {
 			needToHandleEvent.recycle();
 			needToHandleEvent = null;
@@ -124,6 +294,119 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 			velocityTracker.recycle();
 			velocityTracker = null;
 		}
+		removeCallbacks(dispatchIdleRunnable);
+		stopQuickReturnSettle();
+		releaseStickySnapshot();
+		if (currentAnimator != null) {
+			currentAnimator.cancel();
+			currentAnimator = null;
+		}
+		if (mainContentView != null || touchesState != TouchesState.UNDEFINED) {
+			changeState(TouchesState.UNDEFINED, null);
+		}
+		checkContentReplaced();
+	}
+
+	/**
+	 * Drops references into a content child that is no longer the content of this view: the
+	 * parallax registrations, the touch state, the active content view and the sticky views.
+	 * They are looked up again, or the controller recreated, when next needed.
+	 */
+	private void releaseContentReferences(View content) {
+		releaseParallaxViews(content);
+		for (int i = 0; i < contentLinkCount; i++) {
+			contentLinks[i] = null;
+		}
+		contentLinkCount = 0;
+		if (mainContentView != null && ScrollViewEx.isViewDescendantOf((View) mainContentView, content)) {
+			changeState(TouchesState.UNDEFINED, null);
+		}
+		if (activeContentView != null && ScrollViewEx.isViewDescendantOf((View) activeContentView, content)) {
+			activeContentView = null;
+		}
+		if (gestureTarget != null && ScrollViewEx.isViewDescendantOf((View) gestureTarget, content)) {
+			gestureTarget = null;
+		}
+		if (contentScrollTarget != null
+				&& ScrollViewEx.isViewDescendantOf((View) contentScrollTarget, content)) {
+			stopContentScrollAnimation();
+		}
+		if (stickyView != null && ScrollViewEx.isViewDescendantOf(stickyView, content)) {
+			if (isStick) {
+				stopStick();
+			}
+			releaseStickySnapshot();
+			stickyView = null;
+		}
+		if (stickyFooterView != null && ScrollViewEx.isViewDescendantOf(stickyFooterView, content)) {
+			stickyFooterView = null;
+			isFooterPinned = false;
+		}
+		if (stackedStickyViews != null) {
+			for (int i = 0; i < stackedStickyViews.length; i++) {
+				if (stackedStickyViews[i] != null
+						&& ScrollViewEx.isViewDescendantOf(stackedStickyViews[i], content)) {
+					setStackedStuck(i, false);
+					stackedStickyViews[i] = null;
+				}
+			}
+		}
+	}
+
+	private void checkContentReplaced() {
+		final View content = getChildCount() > 0 ? getChildAt(0) : null;
+		if (content != layoutContent) {
+			if (layoutContent != null) {
+				releaseContentReferences(layoutContent);
+			}
+			layoutContent = content;
+		}
+	}
+
+	@Override
+	public void onViewRemoved(View child) {
+		super.onViewRemoved(child);
+		if (child == layoutContent) {
+			releaseContentReferences(child);
+			layoutContent = null;
+		}
+	}
+
+	private ParallaxViewController getParallaxViewController() {
+		if (parallaxViewController == null) {
+			parallaxViewController = ParallaxViewController.wrap(this);
+		}
+		return parallaxViewController;
+	}
+
+	private void releaseParallaxViews(View content) {
+		boolean released = false;
+		for (int i = parallaxRegistrations.size() - 1; i >= 0; i--) {
+			if (ScrollViewEx.isViewDescendantOf(parallaxRegistrations.get(i).view, content)) {
+				parallaxRegistrations.remove(i);
+				released = true;
+			}
+		}
+		if (!released) {
+			return;
+		}
+		parallaxViewController = null;
+		for (int i = 0; i < parallaxRegistrations.size(); i++) {
+			parallaxRegistrations.get(i).register(getParallaxViewController());
+		}
+		if (parallaxViewController != null) {
+			parallaxViewController.onScrollChanged(this, getScrollX(), getScrollY(), getScrollX(),
+					getScrollY());
+		}
+	}
+
+	boolean isParallaxRegistered(View view) {
+		for (int i = 0; i < parallaxRegistrations.size(); i++) {
+			if (parallaxRegistrations.get(i).view == view) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public void setOnSizeChangedListener(OnSizeChangedListener onSizeChangedListener) {
@@ -131,19 +414,179 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	}
 
 	public void setStickyViewId(int stickyViewId) {
+		setSnapshotShown(false);
 		this.stickyViewId = stickyViewId;
 		findStickyViews();
 	}
 
 	public void setStickyOffsetY(int stickOffsetY) {
 		this.stickOffsetY = stickOffsetY;
+		stackedBaseHeight = -1;
+		updateStackedGeometry();
+		doTheStackedThing();
+	}
+
+	/**
+	 * Sets headers that stick below the sticky view, in order from top to bottom. Each stacked
+	 * header sticks once it reaches the bottom of the headers above it.
+	 */
+	public void setStackedStickyViewIds(int... ids) {
+		if (stackedStickyViews != null) {
+			for (int i = 0; i < stackedStickyViews.length; i++) {
+				if (stackedStuck[i]) {
+					setStackedStuck(i, false);
+					stackedStickyViews[i].setTranslationY(0);
+				}
+			}
+		}
+		final int count = ids != null ? ids.length : 0;
+		stackedStickyViewIds = count > 0 ? ids.clone() : null;
+		stackedStickyViews = count > 0 ? new View[count] : null;
+		stackedTops = new int[count];
+		stackedLefts = new int[count];
+		stackedHeights = new int[count];
+		stackedOffsets = new int[count];
+		stackedStuck = new boolean[count];
+		stackedBaseHeight = -1;
+		findStickyViews();
+		doTheStackedThing();
+	}
+
+	/**
+	 * Sets the view that stays pinned to the bottom edge until its natural position scrolls into
+	 * view.
+	 */
+	public void setStickyFooterViewId(int stickyFooterViewId) {
+		this.stickyFooterViewId = stickyFooterViewId;
+		if (stickyFooterView != null) {
+			setFooterPinned(false);
+			stickyFooterView.setTranslationY(0);
+		}
+		findStickyViews();
+		doTheFooterThing();
+	}
+
+	/**
+	 * @param stickFooterOffsetY distance in pixels between the pinned footer and the bottom edge
+	 */
+	public void setStickyFooterOffsetY(int stickFooterOffsetY) {
+		this.stickFooterOffsetY = stickFooterOffsetY;
+		doTheFooterThing();
+	}
+
+	public boolean isStickyFooterPinned() {
+		return isFooterPinned;
 	}
 
 	public void setStickyScrollListener(StickyScrollListener stickyScrollListener) {
 		this.stickyScrollListener = stickyScrollListener;
 	}
 
+	/**
+	 * Sets the drawable drawn below the stuck view. It is only drawn while a view is stuck.
+	 */
+	public void setShadowDrawable(Drawable shadowDrawable) {
+		this.shadowDrawable = shadowDrawable;
+		shadowAlpha = -1;
+		if (shadowDrawable != null) {
+			shadowDrawable.setBounds(0, 0, stuckWidth, shadowHeight);
+		}
+		refreshShadowAlpha();
+		invalidate();
+	}
+
+	/**
+	 * @param shadowHeight height of the shadow in pixels
+	 */
+	public void setShadowHeight(int shadowHeight) {
+		this.shadowHeight = shadowHeight;
+		shadowAlpha = -1;
+		if (shadowDrawable != null) {
+			shadowDrawable.setBounds(0, 0, stuckWidth, shadowHeight);
+		}
+		refreshShadowAlpha();
+		invalidate();
+	}
+
+	/**
+	 * Reports touch events, scrolls, flings and touch state changes to the given listener.
+	 * Pass null to stop reporting.
+	 */
+	public void setGestureTraceListener(GestureTraceListener gestureTraceListener) {
+		this.gestureTraceListener = gestureTraceListener;
+	}
+
+	public GestureTraceListener getGestureTraceListener() {
+		return gestureTraceListener;
+	}
+
+	/**
+	 * Enables quick-return: while stuck, the header hides and shows in step with the scroll and
+	 * snaps to the nearest state when scrolling stops. {@link #showSticky(boolean)} then settles
+	 * the header the same way instead of animating it.
+	 */
+	public void setQuickReturnEnabled(boolean quickReturnEnabled) {
+		if (this.quickReturnEnabled == quickReturnEnabled) {
+			return;
+		}
+		this.quickReturnEnabled = quickReturnEnabled;
+		stopQuickReturnSettle();
+		setQuickReturnOffset(0);
+	}
+
+	public boolean isQuickReturnEnabled() {
+		return quickReturnEnabled;
+	}
+
+	/**
+	 * @return how much of the stuck header is hidden by quick-return, from 0 to 1
+	 */
+	public float getQuickReturnHiddenFraction() {
+		final int distance = getQuickReturnDistance();
+		return distance > 0 ? quickReturnOffset / (float) distance : 0;
+	}
+
+	/**
+	 * Enables drawing a constant sticky view from a cached bitmap while it is stuck. Views tagged
+	 * {@code -nonconstant} are always drawn directly.
+	 */
+	public void setStickySnapshotEnabled(boolean stickySnapshotEnabled) {
+		this.stickySnapshotEnabled = stickySnapshotEnabled;
+		if (!stickySnapshotEnabled) {
+			releaseStickySnapshot();
+		} else {
+			setSnapshotShown(isSnapshotUsable());
+		}
+		invalidate();
+	}
+
+	public boolean isStickySnapshotEnabled() {
+		return stickySnapshotEnabled;
+	}
+
+	/**
+	 * Re-renders the sticky snapshot on the next draw. On API 21 and later the view is
+	 * re-rendered automatically when it invalidates itself; before that call this after changing
+	 * the appearance of a stuck view.
+	 */
+	public void invalidateStickySnapshot() {
+		if (isSnapshotShown) {
+			snapshotDirty = true;
+			invalidate();
+		}
+	}
+
+	/**
+	 * @return bytes held by the sticky snapshot bitmap, 0 if there is none
+	 */
+	public int getStickySnapshotByteCount() {
+		return stickySnapshot != null ? stickySnapshot.getByteCount() : 0;
+	}
+
 	public int getAnimationDuration() {
+		if (animationDuration < 0) {
+			animationDuration = ScrollConfiguration.get(getContext()).mediumAnimTime;
+		}
 		return animationDuration;
 	}
 
@@ -186,9 +629,16 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	@Override
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
 		super.onLayout(changed, l, t, r, b);
+		checkContentReplaced();
+		updateContentLinks();
 		if (!clipToPaddingHasBeenSet) {
 			clippingToPadding = true;
 		}
+		updateStickyGeometry();
+		doTheStickyThing();
+		doTheStackedThing();
+		doTheFooterThing();
+		snapshotDirty = true;
 		if (savedState != null) {
 			if (savedState.scrollToBottom) {
 				scrollTo(getScrollX(), getScrollRange());
@@ -197,6 +647,136 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 		}
 	}
 
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		if (isSnapshotShown && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+				&& stickyView.isDirty()) {
+			snapshotDirty = true;
+		}
+		super.dispatchDraw(canvas);
+		if (isSnapshotShown) {
+			drawStickySnapshot(canvas);
+		}
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+			drawStuckStackedViews(canvas);
+			if (isFooterPinned) {
+				drawAboveContent(canvas, stickyFooterView, stickyFooterLeft, stickyFooterTop);
+			}
+		}
+		if (isStick && shadowDrawable != null && shadowAlpha > 0) {
+			final View content = getChildAt(0);
+			final int saveCount = canvas.save();
+			canvas.translate(content.getLeft() + stuckLeft, content.getTop() + stickyViewTop +
+					stickyView.getTranslationY() + stickyView.getHeight());
+			shadowDrawable.draw(canvas);
+			canvas.restoreToCount(saveCount);
+		}
+	}
+
+	private void drawStuckStackedViews(Canvas canvas) {
+		if (stackedStickyViews == null) {
+			return;
+		}
+		for (int i = 0; i < stackedStickyViews.length; i++) {
+			if (stackedStuck[i]) {
+				drawAboveContent(canvas, stackedStickyViews[i], stackedLefts[i], stackedTops[i]);
+			}
+		}
+	}
+
+	/**
+	 * Before API 21 there is no Z ordering, so the pinned footer and the stuck stacked headers are
+	 * drawn once more over the siblings that follow them in the content.
+	 */
+	private void drawAboveContent(Canvas canvas, View v, int left, int top) {
+		if (v.getVisibility() != View.VISIBLE) {
+			return;
+		}
+		final View content = getChildAt(0);
+		final int saveCount = canvas.save();
+		canvas.translate(content.getLeft() + left - v.getScrollX(),
+				content.getTop() + top + v.getTranslationY() - v.getScrollY());
+		v.draw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	private void drawStickySnapshot(Canvas canvas) {
+		final int width = stickyView.getWidth();
+		final int height = stickyView.getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (snapshotDirty || stickySnapshot == null) {
+			if (stickySnapshot == null || stickySnapshot.getWidth() != width
+					|| stickySnapshot.getHeight() != height) {
+				if (stickySnapshot != null) {
+					stickySnapshot.recycle();
+				}
+				stickySnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+			} else {
+				stickySnapshot.eraseColor(0);
+			}
+			snapshotCanvas.setBitmap(stickySnapshot);
+			final int saveCount = snapshotCanvas.save();
+			snapshotCanvas.translate(-stickyView.getScrollX(), -stickyView.getScrollY());
+			stickyView.draw(snapshotCanvas);
+			snapshotCanvas.restoreToCount(saveCount);
+			snapshotCanvas.setBitmap(null);
+			snapshotDirty = false;
+		}
+		final View content = getChildAt(0);
+		// View.draw leaves out the view's own alpha, its parent applies it.
+		snapshotPaint.setAlpha((int) (stickyView.getAlpha() * 255));
+		canvas.drawBitmap(stickySnapshot, content.getLeft() + stuckLeft + stickyView.getTranslationX(),
+				content.getTop() + stickyViewTop + stickyView.getTranslationY(), snapshotPaint);
+	}
+
+	private boolean isSnapshotUsable() {
+		return stickySnapshotEnabled && isStick && stickyView != null && !stickyNonConstant
+				&& !stickyHasTransparency;
+	}
+
+	/**
+	 * Swaps between drawing the sticky view itself and drawing its snapshot.
+	 */
+	private void setSnapshotShown(boolean shown) {
+		if (shown == isSnapshotShown || stickyView == null) {
+			return;
+		}
+		isSnapshotShown = shown;
+		if (shown) {
+			snapshotDirty = true;
+		}
+		invalidate();
+	}
+
+	/**
+	 * While the snapshot is shown the stuck view is clipped out of the content, which skips drawing
+	 * it without changing any of its properties.
+	 */
+	@Override
+	protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+		if (!isSnapshotShown || child != getChildAt(0)) {
+			return super.drawChild(canvas, child, drawingTime);
+		}
+		final float left = child.getLeft() + stuckLeft + stickyView.getTranslationX();
+		final float top = child.getTop() + stickyViewTop + stickyView.getTranslationY();
+		final int saveCount = canvas.save();
+		canvas.clipRect(left, top, left + stickyView.getWidth(), top + stickyView.getHeight(),
+				Region.Op.DIFFERENCE);
+		final boolean more = super.drawChild(canvas, child, drawingTime);
+		canvas.restoreToCount(saveCount);
+		return more;
+	}
+
+	private void releaseStickySnapshot() {
+		setSnapshotShown(false);
+		if (stickySnapshot != null) {
+			stickySnapshot.recycle();
+			stickySnapshot = null;
+		}
+	}
+
 	@Override
 	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
 		super.onSizeChanged(w, h, oldw, oldh);
@@ -286,21 +866,68 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 				(), location[1] + stickyView.getHeight());
 	}
 
-	private MotionEvent getRelativeEvent(StickyContentView v, MotionEvent original) {
-		MotionEvent relative = MotionEvent.obtain(original);
-		if (original.getX() == original.getRawX() && original.getY() == original.getRawY()) {
+	/**
+	 * Dispatches the event to the content view, offset into its coordinates when it is in screen
+	 * coordinates. The event is offset in place and restored afterwards instead of being copied.
+	 */
+	private boolean dispatchRelativeEvent(StickyContentView v, MotionEvent event) {
+		float offsetX = 0;
+		float offsetY = 0;
+		if (event.getX() == event.getRawX() && event.getY() == event.getRawY()) {
 			v.getLocationOnScreen(location);
-			relative.offsetLocation(-location[0], -location[1]);
+			offsetX = location[0];
+			offsetY = location[1];
 		}
-		return relative;
+		event.offsetLocation(-offsetX, -offsetY);
+		boolean handled = v.onTranslatedTouchEvent(event);
+		event.offsetLocation(offsetX, offsetY);
+		return handled;
 	}
 
-
 	private void clearEvents(Queue<MotionEvent> events) {
-		for (MotionEvent event : events) {
+		if (events == null) {
+			return;
+		}
+		MotionEvent event;
+		while ((event = events.poll()) != null) {
 			event.recycle();
 		}
-		events.clear();
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		if (gestureTraceListener != null) {
+			gestureTraceListener.onMotionEvent(ev);
+		}
+		final int action = ev.getActionMasked();
+		if (action == MotionEvent.ACTION_DOWN) {
+			isGestureTouchDown = true;
+		}
+		final boolean handled = super.dispatchTouchEvent(ev);
+		if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+			isGestureTouchDown = false;
+		}
+		return handled;
+	}
+
+	/**
+	 * Forgets the touch location and content view of the last gesture, unless a touch is down.
+	 */
+	private void releaseGestureTarget() {
+		if (!isGestureTouchDown) {
+			hasGestureTouch = false;
+			gestureTarget = null;
+		}
+	}
+
+	/**
+	 * Called when a scroll or fling not driven by the current gesture starts. Once the last
+	 * gesture is over, its touch location no longer picks the content view.
+	 */
+	private void onUntouchedScrollStarted() {
+		if (combinedScrollState == OnScrollStateChangedListener.SCROLL_STATE_IDLE) {
+			releaseGestureTarget();
+		}
 	}
 
 	@Override
@@ -309,6 +936,13 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 		if (touchesState == TouchesState.FLING_SCROLLABLE || touchesState == TouchesState.FLING_THIS) {
 			toUndefined();
 		}
+		if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+			stopContentScrollAnimation();
+			startYRelative = ev.getY();
+			startXRelative = ev.getX();
+			hasGestureTouch = true;
+			gestureTarget = null;
+		}
 		if (stickyModeEnabled && isStick && !isStickyHidden) {
 			final int action = ev.getActionMasked();
 			if (action == MotionEvent.ACTION_DOWN) {
@@ -333,26 +967,24 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 					clearEvents(interceptedEvents);
 					startY = ev.getRawY();
 					startX = ev.getRawX();
-					startYRelative = ev.getY();
-					startXRelative = ev.getX();
+					if (interceptedEvents == null) {
+						interceptedEvents = new ArrayDeque<>();
+					}
 					interceptedEvents.offer(MotionEvent.obtain(ev));
 					break;
 				}
 				case MotionEvent.ACTION_MOVE: {
 					float y = ev.getRawY();
-					float deltaY = startY - y;
-					if (deltaY > 0 && deltaY > touchSlop) {
-						StickyContentView scrollableView = canScroll(this, false, 0,
-								(int) startXRelative,
-								(int) startYRelative);
+					final int direction = StickyHandoff.getInterceptDirection(startY - y, touchSlop);
+					if (direction == StickyHandoff.DRAG_FORWARD) {
+						StickyContentView scrollableView = findGestureTarget(0);
 						if (scrollableView != null) {
 							toTranslateToScrollable(scrollableView);
 							return true;
 						}
 
-					} else if (deltaY < 0 && deltaY < -touchSlop) {
-						StickyContentView scrollableView = canScroll(this, false, -1, (int) startXRelative,
-								(int) startYRelative);
+					} else if (direction == StickyHandoff.DRAG_BACK) {
+						StickyContentView scrollableView = findGestureTarget(-1);
 						if (scrollableView != null) {
 							toTranslateToScrollable(scrollableView);
 							return true;
@@ -389,26 +1021,19 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	}
 
 	private void catchMotionEvent(MotionEvent event) {
-//		if (!(forwardTouchesToScrollable || forwardTouchesFromScrollable)) {
-		if (lastMotionEvent != null) {
-			lastMotionEvent.recycle();
-		}
-		lastMotionEvent = MotionEvent.obtain(event);
-//		}
+		lastMotionEvent.set(event);
 	}
 
 	private boolean dispatchTouch(MotionEvent event) {
 		boolean handled = false;
 		switch (touchesState) {
 			case TRANSLATE_TO_SCROLLABLE: {
-				if (interceptedEvents.size() > 0) {
-					for (MotionEvent cEvent : interceptedEvents) {
-						mainContentView.onTranslatedTouchEvent(cEvent);
-					}
-					clearEvents(interceptedEvents);
+				MotionEvent cEvent;
+				while (interceptedEvents != null && (cEvent = interceptedEvents.poll()) != null) {
+					mainContentView.onTranslatedTouchEvent(cEvent);
+					cEvent.recycle();
 				}
-				handled = mainContentView.onTranslatedTouchEvent(getRelativeEvent(mainContentView,
-						event));
+				handled = dispatchRelativeEvent(mainContentView, event);
 				break;
 			}
 			case REDIRECT_TO_SCROLLABLE: {
@@ -442,24 +1067,165 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 		return handled;
 	}
 
-	protected StickyContentView canScroll(View v, boolean checkV, int direction, int x, int y) {
-		if (v instanceof ViewGroup) {
-			final ViewGroup group = (ViewGroup) v;
-			final int scrollX = v.getScrollX();
-			final int scrollY = v.getScrollY();
-			final int count = group.getChildCount();
-			// Count backwards - let topmost views consume scroll distance first.
-			for (int i = count - 1; i >= 0; i--) {
-				// This will not work for transformed views in Honeycomb+
-				final View child = group.getChildAt(i);
-				if (x + scrollX >= child.getLeft() && x + scrollX < child.getRight() &&
-						y + scrollY >= child.getTop() && y + scrollY < child.getBottom()
-						) {
-					StickyContentView view = canScroll(child, true, direction, x + scrollX - child.getLeft(),
-							y + scrollY - child.getTop());
-					if (view != null) {
-						return view;
-					}
+	/**
+	 * Declares the content view that drags, flings and wheel scrolls are handed to, skipping the
+	 * hit test over the content. Use it when several content views exist but only one is shown,
+	 * like pages of a ViewPager, see {@link ViewPagerContentTracker}. If this view is not scrolled
+	 * to the bottom, the new content view is scrolled to its top so the two stay in sync.
+	 *
+	 * @param contentView the content view, or null to find it by hit testing again
+	 */
+	public void setActiveContentView(StickyContentView contentView) {
+		if (activeContentView == contentView) {
+			return;
+		}
+		activeContentView = contentView;
+		gestureTarget = null;
+		if (touchesState != TouchesState.UNDEFINED) {
+			changeState(TouchesState.UNDEFINED, null);
+		}
+		if (contentView != null && canScrollVertically(1)) {
+			contentView.scrollToTop();
+		}
+	}
+
+	public StickyContentView getActiveContentView() {
+		return activeContentView;
+	}
+
+	private StickyContentView findScrollableView(int direction, int x, int y) {
+		if (activeContentView != null) {
+			return direction == 0 || canChainScrollVertically(activeContentView, direction) ?
+					activeContentView : null;
+		}
+		// Count backwards - let topmost views consume scroll distance first.
+		for (int i = contentLinkCount - 1; i >= 0; i--) {
+			final StickyContentView link = contentLinks[i];
+			if (isLinkUnder((View) link, x, y)
+					&& (direction == 0 || canChainScrollVertically(link, direction))) {
+				return link;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the content view for the current gesture. The first lookup hit tests the touch
+	 * location, falling back to the same column at the middle of this view when the touch was
+	 * outside the content (e.g. over a header scrolled away since); the result is then reused
+	 * until the gesture and its fling are over. Gestures not started by a touch use the middle of
+	 * this view.
+	 */
+	private StickyContentView findGestureTarget(int direction) {
+		if (gestureTarget != null) {
+			return direction == 0 || canChainScrollVertically(gestureTarget, direction) ?
+					gestureTarget : null;
+		}
+		final int x = hasGestureTouch ? (int) startXRelative : getWidth() / 2;
+		StickyContentView scrollableView = hasGestureTouch ?
+				findScrollableView(0, x, (int) startYRelative) : null;
+		if (scrollableView == null) {
+			scrollableView = findScrollableView(0, x, getHeight() / 2);
+		}
+		gestureTarget = scrollableView;
+		return scrollableView == null || direction == 0 ||
+				canChainScrollVertically(scrollableView, direction) ? scrollableView : null;
+	}
+
+	private void updateContentLinks() {
+		for (int i = 0; i < contentLinkCount; i++) {
+			contentLinks[i] = null;
+		}
+		contentLinkCount = 0;
+		collectContentLinks(this, false);
+		if (gestureTarget != null && gestureTarget != activeContentView) {
+			boolean linked = false;
+			for (int i = 0; i < contentLinkCount && !linked; i++) {
+				linked = contentLinks[i] == gestureTarget;
+			}
+			if (!linked) {
+				gestureTarget = null;
+			}
+		}
+	}
+
+	private void collectContentLinks(View v, boolean checkV) {
+		if (checkV && v instanceof StickyContentView) {
+			if (contentLinkCount == contentLinks.length) {
+				StickyContentView[] links = new StickyContentView[Math.max(4, contentLinkCount * 2)];
+				System.arraycopy(contentLinks, 0, links, 0, contentLinkCount);
+				contentLinks = links;
+			}
+			contentLinks[contentLinkCount++] = (StickyContentView) v;
+		} else if (v instanceof ViewGroup) {
+			final ViewGroup group = (ViewGroup) v;
+			for (int i = 0; i < group.getChildCount(); i++) {
+				collectContentLinks(group.getChildAt(i), true);
+			}
+		}
+	}
+
+	/**
+	 * Maps the bounds of a link into this view's coordinates by walking up its parents, so only
+	 * the path to the link is visited.
+	 */
+	private boolean isLinkUnder(View link, int x, int y) {
+		if (!link.isShown()) {
+			return false;
+		}
+		int left = link.getLeft();
+		int top = link.getTop();
+		ViewParent parent = link.getParent();
+		while (parent instanceof View) {
+			final View view = (View) parent;
+			left -= view.getScrollX();
+			top -= view.getScrollY();
+			if (view == this) {
+				return x >= left && x < left + link.getWidth() && y >= top && y < top + link.getHeight();
+			}
+			left += view.getLeft();
+			top += view.getTop();
+			parent = view.getParent();
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the content view, or the chain below it, can scroll in the direction
+	 */
+	private static boolean canChainScrollVertically(StickyContentView contentView, int direction) {
+		if (((View) contentView).canScrollVertically(direction)) {
+			return true;
+		}
+		if (contentView instanceof StickyScrollView) {
+			final StickyScrollView chain = (StickyScrollView) contentView;
+			for (int i = 0; i < chain.contentLinkCount; i++) {
+				if (canChainScrollVertically(chain.contentLinks[i], direction)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	protected StickyContentView canScroll(View v, boolean checkV, int direction, int x, int y) {
+		if (v instanceof ViewGroup) {
+			final ViewGroup group = (ViewGroup) v;
+			final int scrollX = v.getScrollX();
+			final int scrollY = v.getScrollY();
+			final int count = group.getChildCount();
+			// Count backwards - let topmost views consume scroll distance first.
+			for (int i = count - 1; i >= 0; i--) {
+				// This will not work for transformed views in Honeycomb+
+				final View child = group.getChildAt(i);
+				if (x + scrollX >= child.getLeft() && x + scrollX < child.getRight() &&
+						y + scrollY >= child.getTop() && y + scrollY < child.getBottom()
+						) {
+					StickyContentView view = canScroll(child, true, direction, x + scrollX - child.getLeft(),
+							y + scrollY - child.getTop());
+					if (view != null) {
+						return view;
+					}
 				}
 			}
 		}
@@ -472,29 +1238,78 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 	@Override
 	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
 		super.onScrollChanged(l, t, oldl, oldt);
+		StickyTrace.beginSection(StickyTrace.SECTION_SCROLL_CHANGED);
+		StickyTrace.counter(StickyTrace.COUNTER_SCROLL_Y, t);
+		if (gestureTraceListener != null) {
+			gestureTraceListener.onScroll(t, oldt);
+		}
+		if (quickReturnEnabled && isStick) {
+			addQuickReturnDelta(t - oldt);
+		}
 		doTheStickyThing();
-		if (!isBeingDragged()) {
-			doTheFlyingThing(t, oldt);
+		doTheStackedThing();
+		doTheFooterThing();
+		if (isContentScrolling()) {
+			// This view and the content are moved together, nothing to hand over.
+		} else if (!isBeingDragged()) {
+			// Wheel scrolls that reach the end are continued by dispatchUnconsumedWheelScroll.
+			if (!isWheelScrolling()) {
+				doTheFlyingThing(t, oldt);
+			}
 		} else {
-			if (t > oldt) {
-				if (!canScrollVertically(1)) {
-					StickyContentView scrollableView = canScroll(this, false, 1, getWidth() / 2, getHeight() / 2);
-					if (scrollableView != null) {
-						toRedirectToScrollable(scrollableView);
-
-//						setOverScrollMode(View.OVER_SCROLL_NEVER);
-					}
-				}
+			if (StickyHandoff.shouldRedirectDragToContent(t, oldt, canScrollVertically(1))) {
+				redirectDragToContent();
+			}
+		}
+		if (parentScrollListener != null) {
+			if (isBeingDragged()) {
+				parentScrollListener.onScrollableScroll(this, t, oldt, StickyHandoff.NO_OFFSET,
+						StickyHandoff.NO_OFFSET);
+			} else {
+				parentScrollListener.onScrollableFling(this, t, oldt, StickyHandoff.NO_OFFSET,
+						StickyHandoff.NO_OFFSET, getCurrentFlingVelocity());
 			}
 		}
 		if (stickyScrollListener != null) {
 			stickyScrollListener.onScrollViewScrolled(t, oldt, getScrollRange());
 		}
 
-		parallaxViewController.onScrollChanged(this, l, t, oldl, oldt);
+		if (parallaxViewController != null) {
+			parallaxViewController.onScrollChanged(this, l, t, oldl, oldt);
+		}
+		StickyTrace.endSection();
+	}
+
+	private void redirectDragToContent() {
+		StickyContentView scrollableView = findGestureTarget(1);
+		if (scrollableView != null) {
+			toRedirectToScrollable(scrollableView);
+
+//			setOverScrollMode(View.OVER_SCROLL_NEVER);
+		}
+	}
+
+	/**
+	 * A drag pushing against either end produces no scroll change, so in a chain it is passed on
+	 * from here: forward to the content, back to the parent sticky scroll view.
+	 */
+	@Override
+	protected void onDragClamped(int deltaY) {
+		if (deltaY > 0 && !canScrollVertically(1)) {
+			redirectDragToContent();
+		} else if (deltaY < 0 && parentScrollListener != null && !canScrollVertically(-1)) {
+			parentScrollListener.onScrollableScroll(this, 0, 0, StickyHandoff.NO_OFFSET,
+					StickyHandoff.NO_OFFSET);
+		}
 	}
 
 	public void showSticky(boolean show) {
+		if (quickReturnEnabled) {
+			if (isStick) {
+				startQuickReturnSettle(show ? 0 : getQuickReturnDistance());
+			}
+			return;
+		}
 		if (isStick && isStickyHidden == show) {
 			if (currentAnimator != null) {
 				currentAnimator.cancel();
@@ -508,23 +1323,117 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 						.setDuration(getAnimationDuration());
 			}
 			isStickyHidden = !show;
+			animateStuckStackedViews();
 			if (stickyScrollListener != null) {
 				stickyScrollListener.onStickyVisibilityChanged(isStickyHidden);
 			}
 		}
 	}
 
+	/**
+	 * @return distance that moves the stuck headers, the stacked ones that are stuck included,
+	 * out of view
+	 */
+	private int getQuickReturnDistance() {
+		if (stickyView == null) {
+			return 0;
+		}
+		final int paddingTop = clippingToPadding ? 0 : getPaddingTop();
+		final int stackedBottom = getStackedStuckBottom(getScrollY(), paddingTop);
+		return paddingTop + (stackedBottom >= 0 ? stackedBottom : stickOffsetY + stickyView.getHeight());
+	}
+
+	private void addQuickReturnDelta(int delta) {
+		if (delta == 0) {
+			return;
+		}
+		stopQuickReturnSettle();
+		setQuickReturnOffset(Math.max(0, Math.min(getQuickReturnDistance(), quickReturnOffset + delta)));
+	}
+
+	private void setQuickReturnOffset(int offset) {
+		if (offset == quickReturnOffset) {
+			return;
+		}
+		quickReturnOffset = offset;
+		if (isStick && !isStickyHidden) {
+			stickyView.setTranslationY(getStickTranslation() - quickReturnOffset);
+		}
+		doTheStackedThing();
+		final boolean hidden = offset > 0 && offset >= getQuickReturnDistance();
+		if (hidden != quickReturnHidden) {
+			quickReturnHidden = hidden;
+			if (stickyScrollListener != null) {
+				stickyScrollListener.onStickyVisibilityChanged(hidden);
+			}
+		}
+	}
+
+	/**
+	 * Snaps a partly hidden header to whichever of shown or hidden is nearer.
+	 */
+	private void settleQuickReturn() {
+		if (!quickReturnEnabled || !isStick || isQuickReturnSettling) {
+			return;
+		}
+		final int distance = getQuickReturnDistance();
+		if (quickReturnOffset > 0 && quickReturnOffset < distance) {
+			startQuickReturnSettle(quickReturnOffset * 2 < distance ? 0 : distance);
+		}
+	}
+
+	private void startQuickReturnSettle(int target) {
+		stopQuickReturnSettle();
+		if (target == quickReturnOffset) {
+			return;
+		}
+		settleFromOffset = quickReturnOffset;
+		settleToOffset = target;
+		settleStartTime = AnimationUtils.currentAnimationTimeMillis();
+		isQuickReturnSettling = true;
+		ViewCompat.postOnAnimation(this, quickReturnSettleRunnable);
+	}
+
+	private void stopQuickReturnSettle() {
+		if (isQuickReturnSettling) {
+			isQuickReturnSettling = false;
+			removeCallbacks(quickReturnSettleRunnable);
+		}
+	}
+
 	private int getStickTranslation() {
-		return (clippingToPadding ? 0 : getPaddingTop()) -
-				getTopForViewRelativeOnlyChild(stickyView) + getScrollY() + stickOffsetY;
+		return StickyGeometry.getStickTranslation(stickyViewTop, getScrollY(),
+				clippingToPadding ? 0 : getPaddingTop(), stickOffsetY);
+	}
+
+	/**
+	 * Children covered by the stuck view do not count as visible.
+	 */
+	@Override
+	protected int getVisibleRangeTop() {
+		final int top = super.getVisibleRangeTop();
+		if (!stickyModeEnabled || getChildCount() == 0) {
+			return top;
+		}
+		final int paddingTop = clippingToPadding ? 0 : getPaddingTop();
+		int stuckBottom = getStackedStuckBottom(getScrollY(), paddingTop);
+		if (stickyView != null && !isStickyHidden
+				&& StickyGeometry.isStuck(stickyViewTop, getScrollY(), paddingTop, stickOffsetY)) {
+			stuckBottom = Math.max(stuckBottom, stickOffsetY + stickyView.getHeight());
+		}
+		if (stuckBottom < 0) {
+			return top;
+		}
+		return Math.max(top, getChildAt(0).getTop() + paddingTop + getScrollY() + stuckBottom -
+				quickReturnOffset);
 	}
 
 	private void doTheStickyThing() {
 		if (!stickyModeEnabled || stickyView == null) {
 			return;
 		}
-		int viewTop = getTopForViewRelativeOnlyChild(stickyView) - getScrollY() + (clippingToPadding ? 0 :
-				getPaddingTop());
+		int viewTop = StickyGeometry.getPositionInViewport(stickyViewTop, getScrollY(),
+				clippingToPadding ? 0 : getPaddingTop());
 		if (viewTop <= stickOffsetY) {
 			if (!isStick) {
 				startStick();
@@ -536,36 +1445,241 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 		}
 
 		if (isStick && !isStickyHidden) {
-			stickyView.setTranslationY(getStickTranslation());
+			stickyView.setTranslationY(getStickTranslation() - quickReturnOffset);
+		}
+		if (isStick) {
+			updateShadowAlpha(stickOffsetY - viewTop);
+		}
+	}
+
+	/**
+	 * Fades the shadow in while the content scrolls under the stuck view, reaching full opacity
+	 * once it has moved by the height of the shadow.
+	 */
+	private void refreshShadowAlpha() {
+		if (isStick && stickyView != null) {
+			updateShadowAlpha(stickOffsetY - StickyGeometry.getPositionInViewport(stickyViewTop,
+					getScrollY(), clippingToPadding ? 0 : getPaddingTop()));
+		}
+	}
+
+	private void updateShadowAlpha(int scrolledUnder) {
+		if (shadowDrawable == null) {
+			return;
+		}
+		int alpha = StickyGeometry.getShadowAlpha(scrolledUnder, shadowHeight);
+		if (alpha != shadowAlpha) {
+			shadowAlpha = alpha;
+			shadowDrawable.setAlpha(alpha);
 		}
 	}
 
+	/**
+	 * Pins the footer to the bottom edge, minus its offset, while its natural position is below it.
+	 */
+	private void doTheFooterThing() {
+		if (!stickyModeEnabled || stickyFooterView == null) {
+			return;
+		}
+		final int translation = StickyGeometry.getFooterTranslation(stickyFooterTop,
+				stickyFooterView.getHeight(), getScrollY(), clippingToPadding ? 0 : getPaddingTop(),
+				clippingToPadding ? getHeight() - getPaddingTop() - getPaddingBottom() : getHeight(),
+				stickFooterOffsetY);
+		setFooterPinned(translation != 0);
+		stickyFooterView.setTranslationY(translation);
+	}
+
+	/**
+	 * Lifts the pinned footer above the siblings that follow it in the content, like the stuck
+	 * view is brought to the front.
+	 */
+	private void setFooterPinned(boolean pinned) {
+		if (pinned != isFooterPinned) {
+			isFooterPinned = pinned;
+			ViewCompat.setTranslationZ(stickyFooterView, pinned ? 1 : 0);
+			if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+				invalidate();
+			}
+		}
+	}
+
+	private void updateStickyGeometry() {
+		if (stickyFooterView != null) {
+			stickyFooterTop = getTopForViewRelativeOnlyChild(stickyFooterView);
+			stickyFooterLeft = getLeftForViewRelativeOnlyChild(stickyFooterView);
+		}
+		updateStackedGeometry();
+		if (stickyView == null) {
+			return;
+		}
+		int left = getLeftForViewRelativeOnlyChild(stickyView);
+		int width = stickyView.getWidth();
+		stickyViewTop = getTopForViewRelativeOnlyChild(stickyView);
+		if (left != stuckLeft || width != stuckWidth) {
+			stuckLeft = left;
+			stuckWidth = width;
+			if (shadowDrawable != null) {
+				shadowDrawable.setBounds(0, 0, stuckWidth, shadowHeight);
+			}
+		}
+	}
+
+
+	/**
+	 * Caches the tops of the stacked headers and rebuilds their offsets if a height changed.
+	 */
+	private void updateStackedGeometry() {
+		if (stackedStickyViews == null || getChildCount() == 0) {
+			return;
+		}
+		final int baseHeight = stickyView != null ? stickyView.getHeight() : 0;
+		boolean heightsChanged = baseHeight != stackedBaseHeight;
+		stackedBaseHeight = baseHeight;
+		for (int i = 0; i < stackedStickyViews.length; i++) {
+			final View v = stackedStickyViews[i];
+			if (v == null) {
+				continue;
+			}
+			stackedTops[i] = getTopForViewRelativeOnlyChild(v);
+			stackedLefts[i] = getLeftForViewRelativeOnlyChild(v);
+			if (v.getHeight() != stackedHeights[i]) {
+				stackedHeights[i] = v.getHeight();
+				heightsChanged = true;
+			}
+		}
+		if (heightsChanged) {
+			StickyGeometry.getStackedOffsets(stickOffsetY + baseHeight, stackedHeights, stackedOffsets);
+		}
+	}
+
+	private void doTheStackedThing() {
+		if (!stickyModeEnabled || stackedStickyViews == null) {
+			return;
+		}
+		final int scrollY = getScrollY();
+		final int paddingTop = clippingToPadding ? 0 : getPaddingTop();
+		final int hiddenOffset = getStackedHiddenOffset();
+		for (int i = 0; i < stackedStickyViews.length; i++) {
+			final View v = stackedStickyViews[i];
+			if (v == null) {
+				continue;
+			}
+			if (StickyGeometry.isStuck(stackedTops[i], scrollY, paddingTop, stackedOffsets[i])) {
+				if (!stackedStuck[i]) {
+					setStackedStuck(i, true);
+				}
+				v.setTranslationY(StickyGeometry.getStickTranslation(stackedTops[i], scrollY, paddingTop,
+						stackedOffsets[i]) - hiddenOffset);
+			} else if (stackedStuck[i]) {
+				setStackedStuck(i, false);
+				v.setTranslationY(0);
+			}
+		}
+	}
+
+	/**
+	 * @return how far the stuck stacked headers are moved up, all the way while the sticky view is
+	 * hidden with {@link #showSticky(boolean)}
+	 */
+	private int getStackedHiddenOffset() {
+		return isStickyHidden && isStick ? getQuickReturnDistance() : quickReturnOffset;
+	}
+
+	/**
+	 * Moves the stuck stacked headers along with the sticky view shown or hidden by
+	 * {@link #showSticky(boolean)}.
+	 */
+	private void animateStuckStackedViews() {
+		if (stackedStickyViews == null) {
+			return;
+		}
+		final int scrollY = getScrollY();
+		final int paddingTop = clippingToPadding ? 0 : getPaddingTop();
+		final int hiddenOffset = getStackedHiddenOffset();
+		for (int i = 0; i < stackedStickyViews.length; i++) {
+			if (stackedStuck[i]) {
+				stackedStickyViews[i].animate().translationY(StickyGeometry.getStickTranslation(
+						stackedTops[i], scrollY, paddingTop, stackedOffsets[i]) - hiddenOffset)
+						.setDuration(getAnimationDuration());
+			}
+		}
+	}
+
+	/**
+	 * Lifts a stuck stacked header above the siblings that follow it in the content the same way
+	 * as the pinned footer. bringToFront would move it to the end of a LinearLayout content.
+	 */
+	private void setStackedStuck(int index, boolean stuck) {
+		stackedStuck[index] = stuck;
+		ViewCompat.setTranslationZ(stackedStickyViews[index], stuck ? 1 : 0);
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Computed from the scroll position rather than from the last {@link #doTheStackedThing()},
+	 * which runs after the visible range was updated for the same scroll change.
+	 *
+	 * @return bottom of the lowest stuck stacked header below the stick offset, or -1 if none is stuck
+	 */
+	private int getStackedStuckBottom(int scrollY, int paddingTop) {
+		if (stackedStickyViews == null) {
+			return -1;
+		}
+		for (int i = stackedStickyViews.length - 1; i >= 0; i--) {
+			if (stackedStickyViews[i] != null
+					&& StickyGeometry.isStuck(stackedTops[i], scrollY, paddingTop, stackedOffsets[i])) {
+				return stackedOffsets[i] + stackedHeights[i];
+			}
+		}
+		return -1;
+	}
 
 	private void doTheFlyingThing(int top, int oldTop) {
-		if (top > oldTop && touchesState != TouchesState.FLING_SCROLLABLE) {
-			if (!canScrollVertically(1)) {
-				StickyContentView scrollableView = canScroll(this, false, 1, getWidth() / 2, getHeight() / 2);
+		if (touchesState != TouchesState.FLING_SCROLLABLE) {
+			if (StickyGeometry.shouldFlingContent(top, oldTop, getScrollRange())) {
+				StickyTrace.beginSection(StickyTrace.SECTION_HANDOFF);
+				StickyContentView scrollableView = findGestureTarget(1);
 				if (scrollableView != null) {
 					stopFling();
 					toFlingScrollable(scrollableView, getCurrentFlingVelocity());
 				}
+				StickyTrace.endSection();
 			}
 		}
 	}
 
 
 	@Override
-	public void onScrollableFling(View v, int position, int oldPosition, int t, int oldT, float velocity) {
-		if (position <= oldPosition && position == 0 && ((t == -1 && oldT == -1) || (t > oldT && t == 0)) &&
-				touchesState != TouchesState.FLING_THIS) {
-			if (!canScrollVertically(1)) {
+	protected boolean dispatchUnconsumedWheelScroll(int delta, int x, int y) {
+		if (delta <= 0) {
+			return false;
+		}
+		StickyContentView scrollableView = findScrollableView(1, x, y);
+		return scrollableView instanceof StickyContentViewEx
+				&& ((StickyContentViewEx) scrollableView).wheelScrollBy(delta);
+	}
 
-				if (!v.canScrollVertically(-1)) {
-					touchesState = TouchesState.FLING_SCROLLABLE;
-					toFlingThis(velocity);
-				}
+	@Override
+	public void onScrollableFling(View v, int position, int oldPosition, int t, int oldT, float velocity) {
+		if (!isContentScrolling() && touchesState != TouchesState.FLING_THIS && StickyHandoff.isContentBackAtStart(position,
+				oldPosition, t, oldT) && !canScrollVertically(1) && !v.canScrollVertically(-1)) {
+			if (parentScrollListener != null && !canScrollVertically(-1)) {
+				// Nothing to fling here, pass the fling on up the chain.
+				changeState(TouchesState.UNDEFINED, null);
+				parentScrollListener.onScrollableFling(this, 0, 0, StickyHandoff.NO_OFFSET,
+						StickyHandoff.NO_OFFSET, velocity);
+			} else {
+				toFlingThis(velocity);
 			}
 		}
+		if (quickReturnEnabled && isStick) {
+			addQuickReturnDelta(position - oldPosition);
+		}
+		if (gestureTraceListener != null) {
+			gestureTraceListener.onContentScroll(position, oldPosition);
+		}
 		if (stickyScrollListener != null) {
 			stickyScrollListener.onMainContentScrolled(v, position, oldPosition);
 		}
@@ -573,20 +1687,107 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	@Override
 	public void onScrollableScroll(View v, int position, int oldPosition, int t, int oldT) {
-		if (touchesState != TouchesState.REDIRECT_FROM_SCROLLABLE && position <= oldPosition && position == 0
-				&& ((t == -1 && oldT == -1) || (t > oldT && t == 0))) {
-			if (!canScrollVertically(1)) {
-				if (!v.canScrollVertically(-1)) {
-					toRedirectFromScrollable((StickyContentView) v);
-				}
-			}
+		if (!isContentScrolling() && touchesState != TouchesState.REDIRECT_FROM_SCROLLABLE && StickyHandoff.isContentBackAtStart(
+				position, oldPosition, t, oldT) && !canScrollVertically(1) && !v.canScrollVertically(-1)) {
+			toRedirectFromScrollable((StickyContentView) v);
 		}
 
+		if (quickReturnEnabled && isStick) {
+			addQuickReturnDelta(position - oldPosition);
+		}
+		if (gestureTraceListener != null) {
+			gestureTraceListener.onContentScroll(position, oldPosition);
+		}
 		if (stickyScrollListener != null) {
 			stickyScrollListener.onMainContentScrolled(v, position, oldPosition);
 		}
 	}
 
+	@Override
+	public void onScrollableScrollStateChanged(View v, int scrollState) {
+		updateCombinedScrollState();
+	}
+
+	/**
+	 * Listeners set with {@link #setOnScrollStateChangedListener(OnScrollStateChangedListener)}
+	 * receive the combined state of this view and the active {@link StickyContentView}.
+	 */
+	@Override
+	protected void dispatchScrollStateChanged(int scrollState) {
+		updateCombinedScrollState();
+	}
+
+	@Override
+	public void onScrollableFlingStarted(View v, int finalPosition) {
+		super.dispatchFlingSettlePredicted(getScrollY() + finalPosition,
+				getScrollRange() + getContentScrollRange((StickyContentView) v));
+	}
+
+	/**
+	 * Listeners set with {@link #setOnFlingSettleListener(OnFlingSettleListener)} receive positions
+	 * across the combined range of this view and the active {@link StickyContentView}.
+	 */
+	@Override
+	protected void dispatchFlingSettlePredicted(int finalPosition, int maxPosition) {
+		if (mainContentView != null) {
+			maxPosition += getContentScrollRange(mainContentView);
+			finalPosition = StickyHandoff.getCombinedPosition(finalPosition, getScrollRange(),
+					getContentScrollOffset(mainContentView));
+		}
+		super.dispatchFlingSettlePredicted(finalPosition, maxPosition);
+		if (parentScrollListener != null) {
+			parentScrollListener.onScrollableFlingStarted(this, finalPosition);
+		}
+	}
+
+	private int resolveCombinedScrollState() {
+		if (contentScrollAnimator != null) {
+			return OnScrollStateChangedListener.SCROLL_STATE_SETTLING;
+		}
+		final int state = super.getScrollState();
+		final int contentState = getContentScrollState(mainContentView);
+		if (state == OnScrollStateChangedListener.SCROLL_STATE_DRAGGING ||
+				contentState == OnScrollStateChangedListener.SCROLL_STATE_DRAGGING) {
+			return OnScrollStateChangedListener.SCROLL_STATE_DRAGGING;
+		}
+		if (state == OnScrollStateChangedListener.SCROLL_STATE_SETTLING ||
+				contentState == OnScrollStateChangedListener.SCROLL_STATE_SETTLING) {
+			return OnScrollStateChangedListener.SCROLL_STATE_SETTLING;
+		}
+		return OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+	}
+
+	private void updateCombinedScrollState() {
+		final int state = resolveCombinedScrollState();
+		if (state == OnScrollStateChangedListener.SCROLL_STATE_IDLE) {
+			if (combinedScrollState != OnScrollStateChangedListener.SCROLL_STATE_IDLE) {
+				removeCallbacks(dispatchIdleRunnable);
+				post(dispatchIdleRunnable);
+			}
+			return;
+		}
+		removeCallbacks(dispatchIdleRunnable);
+		if (state != combinedScrollState) {
+			combinedScrollState = state;
+			dispatchCombinedScrollState(state);
+		}
+	}
+
+	private void dispatchCombinedScrollState(int state) {
+		super.dispatchScrollStateChanged(state);
+		if (parentScrollListener != null) {
+			parentScrollListener.onScrollableScrollStateChanged(this, state);
+		}
+	}
+
+	/**
+	 * @return the combined scroll state of this view and the active {@link StickyContentView}
+	 */
+	@Override
+	public int getScrollState() {
+		return combinedScrollState;
+	}
+
 	private void stopStickyShowAnimation() {
 		if (!stickyModeEnabled || stickyView == null) {
 			return;
@@ -607,8 +1808,10 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 			return;
 		}
 		isStick = true;
+		shadowAlpha = -1;
 		stopStickyShowAnimation();
 		stickyView.bringToFront();
+		setSnapshotShown(isSnapshotUsable());
 		requestLayout();
 		invalidate();
 	}
@@ -618,7 +1821,10 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 			return;
 		}
 		stopStickyShowAnimation();
+		setSnapshotShown(false);
+		stopQuickReturnSettle();
 		isStick = false;
+		setQuickReturnOffset(0);
 	}
 
 	public void notifyStickyAttributeChanged() {
@@ -637,29 +1843,257 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	private void findStickyViews() {
 		stickyView = findViewById(stickyViewId);
+		final Object tag = stickyView != null ? stickyView.getTag() : null;
+		stickyNonConstant = tag instanceof String && ((String) tag).contains("-nonconstant");
+		stickyHasTransparency = tag instanceof String && ((String) tag).contains("-hastransparancy");
+		stickyFooterView = stickyFooterViewId != 0 ? findViewById(stickyFooterViewId) : null;
+		if (stackedStickyViews != null) {
+			for (int i = 0; i < stackedStickyViews.length; i++) {
+				final View v = findViewById(stackedStickyViewIds[i]);
+				if (v != stackedStickyViews[i] && stackedStuck[i]) {
+					stackedStuck[i] = false;
+					stackedStickyViews[i].setTranslationY(0);
+				}
+				stackedStickyViews[i] = v;
+			}
+		}
+		if (getChildCount() > 0) {
+			updateStickyGeometry();
+		}
 	}
 
-	private void findInnerScrollables(View v, List<StickyContentView> scrollables, boolean checkThis) {
+	private void scrollInnerScrollablesToTop(View v, boolean checkThis) {
 		if (checkThis && v instanceof StickyContentView) {
-			scrollables.add((StickyContentView) v);
+			((StickyContentView) v).scrollToTop();
 		} else if (v instanceof ViewGroup) {
 			ViewGroup viewGroup = (ViewGroup) v;
 			int childrenCount = viewGroup.getChildCount();
 			for (int i = 0; i < childrenCount; ++i) {
 				View child = viewGroup.getChildAt(i);
-				findInnerScrollables(child, scrollables, true);
+				scrollInnerScrollablesToTop(child, true);
+			}
+		}
+	}
+
+	@Override
+	public void setStickyMainContentScrollListener(StickyMainContentScrollListener listener) {
+		parentScrollListener = listener;
+	}
+
+	@Override
+	public void scrollToTop() {
+		changeState(TouchesState.UNDEFINED, null);
+		scrollTo(getScrollX(), 0);
+		scrollInnerScrollablesToTop(this, false);
+	}
+
+	@Override
+	public void startScrollByEvents(VelocityTracker velocityTracker, MotionEvent prevEvent,
+	                                MotionEvent event, int pointerId) {
+		startScrollByMotionEvents(velocityTracker, prevEvent, event, pointerId);
+	}
+
+	/**
+	 * A fling handed down from the parent continues into this view's own content when this view
+	 * is already at its end.
+	 */
+	@Override
+	public void fling(int velocityY) {
+		onUntouchedScrollStarted();
+		super.fling(velocityY);
+	}
+
+	@Override
+	public void startFling(int velocity) {
+		onUntouchedScrollStarted();
+		if (velocity < 0 && !canScrollVertically(1)) {
+			StickyContentView link = findGestureTarget(1);
+			if (link != null) {
+				toFlingScrollable(link, -velocity);
+				return;
 			}
 		}
+		stopAndFly(-velocity);
+	}
+
+	@Override
+	public void stopScroll() {
+		endDrag();
+	}
+
+	@Override
+	public boolean onTranslatedTouchEvent(MotionEvent event) {
+		return onTouchEvent(event);
+	}
+
+	/**
+	 * @return the position across the combined range of this view and its content view
+	 */
+	@Override
+	public int getContentScrollOffset() {
+		final StickyContentView content = findGestureTarget(0);
+		return getScrollY() + getContentScrollOffset(content);
+	}
+
+	@Override
+	public void scrollContentBy(int dy) {
+		scrollToContentOffset(getContentScrollOffset() + dy, false);
+	}
+
+	/**
+	 * Scrolls to a position across the combined range of this view and its content view, the
+	 * range reported to {@link OnFlingSettleListener}. This view is scrolled first, the content
+	 * view only once this view is at its end, as one animation when smooth.
+	 *
+	 * @param position the position, clamped to the combined range
+	 * @param smooth   whether to animate the scroll
+	 */
+	public void scrollToContentOffset(int position, boolean smooth) {
+		onUntouchedScrollStarted();
+		final StickyContentView content = findGestureTarget(0);
+		final int max = getScrollRange() + getContentScrollRange(content);
+		startContentScroll(content, Math.max(0, Math.min(position, max)), smooth);
+	}
+
+	/**
+	 * Scrolls so that the top of a descendant, in this view or in its content view, is right below
+	 * the stuck headers (or the top padding when none would be stuck there).
+	 *
+	 * @param section a descendant of this view
+	 * @param smooth  whether to animate the scroll
+	 */
+	public void scrollToSection(View section, boolean smooth) {
+		onUntouchedScrollStarted();
+		int top = section.getTop();
+		StickyContentView content = null;
+		ViewParent parent = section.getParent();
+		while (parent != this) {
+			if (!(parent instanceof View)) {
+				throw new IllegalArgumentException("section is not a descendant of this view");
+			}
+			final View view = (View) parent;
+			if (content == null && view instanceof StickyContentView) {
+				content = (StickyContentView) view;
+			}
+			top += view.getTop() - view.getScrollY();
+			parent = view.getParent();
+		}
+		top -= getScrollY();
+
+		final int current = getScrollY() + getContentScrollOffset(content);
+		final int max = getScrollRange() + getContentScrollRange(content);
+		int position = current + top - getPaddingTop();
+		if (stickyModeEnabled && stickyView != null) {
+			final int stuck = current + top - getPaddingTop() - getQuickReturnDistance();
+			final int padding = clippingToPadding ? 0 : getPaddingTop();
+			if (Math.min(stuck, getScrollRange()) + padding + stickOffsetY >= stickyViewTop) {
+				position = stuck;
+			}
+		}
+		startContentScroll(content, Math.max(0, Math.min(position, max)), smooth);
+	}
+
+	/*
+	 * Content views that only implement StickyContentView are treated as idle views without a
+	 * scroll range of their own.
+	 */
+
+	private static int getContentScrollState(StickyContentView content) {
+		return content instanceof StickyContentViewEx ? ((StickyContentViewEx) content).getScrollState() :
+				OnScrollStateChangedListener.SCROLL_STATE_IDLE;
+	}
+
+	private static int getContentScrollRange(StickyContentView content) {
+		return content instanceof StickyContentViewEx ? ((StickyContentViewEx) content).getScrollRange() : 0;
+	}
+
+	private static int getContentScrollOffset(StickyContentView content) {
+		if (content instanceof StickyContentViewEx) {
+			return ((StickyContentViewEx) content).getContentScrollOffset();
+		}
+		return content instanceof View ? ((View) content).getScrollY() : 0;
+	}
+
+	private static int getContentFlingFinalY(StickyContentView content) {
+		return content instanceof StickyContentViewEx ? ((StickyContentViewEx) content).getFlingFinalY() :
+				getContentScrollOffset(content);
+	}
+
+	private static void scrollContentBy(StickyContentView content, int dy) {
+		if (content instanceof StickyContentViewEx) {
+			((StickyContentViewEx) content).scrollContentBy(dy);
+		} else if (content instanceof View) {
+			((View) content).scrollBy(0, dy);
+		}
+	}
+
+	private void startContentScroll(StickyContentView content, int position, boolean smooth) {
+		stopContentScrollAnimation();
+		changeState(TouchesState.UNDEFINED, null);
+		stopFling();
+		if (content != null) {
+			content.stopFling();
+		}
+		contentScrollTarget = content;
+		contentScrollApplied = getContentScrollOffset(content);
+		final int from = getScrollY() + contentScrollApplied;
+		if (!smooth || from == position) {
+			applyContentScroll(position);
+			contentScrollTarget = null;
+			return;
+		}
+		contentScrollAnimator = ValueAnimator.ofInt(from, position);
+		contentScrollAnimator.setDuration(getAnimationDuration());
+		contentScrollAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+			@Override
+			public void onAnimationUpdate(ValueAnimator animation) {
+				applyContentScroll((Integer) animation.getAnimatedValue());
+			}
+		});
+		contentScrollAnimator.addListener(new AnimatorListenerAdapter() {
+			@Override
+			public void onAnimationEnd(Animator animation) {
+				if (contentScrollAnimator == animation) {
+					contentScrollAnimator = null;
+					contentScrollTarget = null;
+					updateCombinedScrollState();
+				}
+			}
+		});
+		contentScrollAnimator.start();
+		updateCombinedScrollState();
+	}
+
+	private boolean isContentScrolling() {
+		return contentScrollAnimator != null || isApplyingContentScroll;
+	}
+
+	private void applyContentScroll(int position) {
+		isApplyingContentScroll = true;
+		final int range = getScrollRange();
+		scrollTo(getScrollX(), Math.min(position, range));
+		if (contentScrollTarget != null) {
+			final int offset = Math.max(0, position - range);
+			if (offset != contentScrollApplied) {
+				scrollContentBy(contentScrollTarget, offset - contentScrollApplied);
+				contentScrollApplied = offset;
+			}
+		}
+		isApplyingContentScroll = false;
+	}
+
+	private void stopContentScrollAnimation() {
+		if (contentScrollAnimator != null) {
+			// Cancelling ends the animation, which clears the fields.
+			contentScrollAnimator.cancel();
+		}
 	}
 
 	public void syncInnerScrollables() {
+		onUntouchedScrollStarted();
 		changeState(TouchesState.UNDEFINED, null);
 		if (canScrollVertically(1)) {
-			List<StickyContentView> scrollables = new ArrayList<>();
-			findInnerScrollables(this, scrollables, false);
-			for (StickyContentView scrollableView : scrollables) {
-				scrollableView.scrollToTop();
-			}
+			scrollInnerScrollablesToTop(this, false);
 		}
 	}
 
@@ -670,33 +2104,142 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	private TouchesState touchesState = TouchesState.UNDEFINED;
 
+	private static final int ACTION_STOP_CONTENT_FLING = 1;
+	private static final int ACTION_STOP_FLING = 1 << 1;
+	private static final int ACTION_CLEAR_EVENTS = 1 << 2;
+	private static final int ACTION_RECYCLE_PENDING_EVENT = 1 << 3;
+	private static final int ACTION_START_FLING = 1 << 4;
+	private static final int ACTION_START_CONTENT_FLING = 1 << 5;
+	private static final int ACTION_TAKE_DRAG_FROM_THIS = 1 << 6;
+	private static final int ACTION_TAKE_DRAG_FROM_CONTENT = 1 << 7;
+
+	private static final int STATE_COUNT = TouchesState.values().length;
+
+	/**
+	 * Actions run when leaving each state, by ordinal.
+	 */
+	private static final int[] EXIT_ACTIONS = {
+			0,                                  // UNDEFINED
+			0,                                  // TO_STICKY
+			0,                                  // REDIRECT_TO_SCROLLABLE
+			0,                                  // REDIRECT_FROM_SCROLLABLE
+			ACTION_CLEAR_EVENTS,                // TRANSLATE_TO_SCROLLABLE
+			ACTION_STOP_CONTENT_FLING,          // FLING_SCROLLABLE
+			ACTION_STOP_FLING,                  // FLING_THIS
+	};
+
+	/**
+	 * Actions run when entering each state, by ordinal. A fling of this view also stops the
+	 * content fling that handed it over.
+	 */
+	private static final int[] ENTER_ACTIONS = {
+			0,                                  // UNDEFINED
+			0,                                  // TO_STICKY
+			ACTION_TAKE_DRAG_FROM_THIS,         // REDIRECT_TO_SCROLLABLE
+			ACTION_TAKE_DRAG_FROM_CONTENT,      // REDIRECT_FROM_SCROLLABLE
+			0,                                  // TRANSLATE_TO_SCROLLABLE
+			ACTION_START_CONTENT_FLING,         // FLING_SCROLLABLE
+			ACTION_STOP_CONTENT_FLING | ACTION_START_FLING, // FLING_THIS
+	};
+
+	/**
+	 * Actions of every transition, indexed by {@code from * STATE_COUNT + to}.
+	 */
+	private static final int[] TRANSITIONS = new int[STATE_COUNT * STATE_COUNT];
+
+	static {
+		for (int from = 0; from < STATE_COUNT; from++) {
+			for (int to = 0; to < STATE_COUNT; to++) {
+				TRANSITIONS[from * STATE_COUNT + to] = EXIT_ACTIONS[from] | ACTION_RECYCLE_PENDING_EVENT
+						| ENTER_ACTIONS[to];
+			}
+		}
+	}
+
+	private static final int TRANSITION_TRACE_SIZE = 64;
+
+	private final TransitionTrace transitionTrace = new TransitionTrace(TRANSITION_TRACE_SIZE);
+
+	/**
+	 * @return the most recent touch state transitions, oldest first, one per line
+	 */
+	public String dumpTouchesStateTrace() {
+		final TouchesState[] states = TouchesState.values();
+		final String[] names = new String[states.length];
+		for (int i = 0; i < states.length; i++) {
+			names[i] = states[i].name();
+		}
+		return transitionTrace.dump(names);
+	}
+
 	private void changeState(TouchesState nState, StickyContentView scrollableView) {
-		if (mainContentView != null) {
-			mainContentView.setStickyMainContentScrollListener(null);
+		changeState(nState, scrollableView, 0);
+	}
+
+	/**
+	 * Moves to a new touch state, running the actions the transition table lists for it.
+	 *
+	 * @param scrollableView content view of the new state, null if it has none
+	 * @param velocity       fling velocity for the fling states
+	 */
+	private void changeState(TouchesState nState, StickyContentView scrollableView, float velocity) {
+		StickyTrace.beginSection(StickyTrace.SECTION_CHANGE_STATE);
+		StickyTrace.counter(StickyTrace.COUNTER_TOUCHES_STATE, nState.ordinal());
+		final int actions = TRANSITIONS[touchesState.ordinal() * STATE_COUNT + nState.ordinal()];
+		if ((actions & ACTION_STOP_CONTENT_FLING) != 0 && mainContentView != null) {
+			mainContentView.stopFling();
 		}
-		switch (touchesState) {
-			case FLING_SCROLLABLE: {
-				fromFlingScrollable();
-				break;
-			}
-			case FLING_THIS: {
-				fromFlingThis();
-				break;
-			}
-			case TRANSLATE_TO_SCROLLABLE: {
-				fromTranslateToScrollable();
-				break;
-			}
+		if ((actions & ACTION_STOP_FLING) != 0) {
+			stopFling();
 		}
-		if (needToHandleEvent != null) {
+		if ((actions & ACTION_CLEAR_EVENTS) != 0) {
+			clearEvents(interceptedEvents);
+		}
+		if ((actions & ACTION_RECYCLE_PENDING_EVENT) != 0 && needToHandleEvent != null) {
 			needToHandleEvent.recycle();
 			needToHandleEvent = null;
 		}
-		mainContentView = scrollableView;
-		if (mainContentView != null) {
-			mainContentView.setStickyMainContentScrollListener(this);
+		if (scrollableView != mainContentView) {
+			if (mainContentView != null) {
+				mainContentView.setStickyMainContentScrollListener(null);
+			}
+			mainContentView = scrollableView;
+			if (mainContentView != null) {
+				mainContentView.setStickyMainContentScrollListener(this);
+			}
+		}
+		transitionTrace.record(SystemClock.uptimeMillis(), touchesState.ordinal(), nState.ordinal());
+		if (gestureTraceListener != null) {
+			gestureTraceListener.onStateChange(touchesState.ordinal(), nState.ordinal());
 		}
 		touchesState = nState;
+		updateCombinedScrollState();
+
+		if ((actions & ACTION_START_FLING) != 0) {
+			stopAndFly((int) -velocity);
+			if (gestureTraceListener != null) {
+				gestureTraceListener.onFling((int) -velocity, getFlingFinalY());
+			}
+		}
+		if ((actions & ACTION_START_CONTENT_FLING) != 0) {
+			scrollableView.startFling((int) -velocity);
+			if (gestureTraceListener != null) {
+				gestureTraceListener.onFling((int) -velocity, getContentFlingFinalY(scrollableView));
+			}
+		}
+		if ((actions & ACTION_TAKE_DRAG_FROM_THIS) != 0) {
+			velocityTracker = snatchVelocityTracker();
+			activePointerId = getActivePointerId();
+			needToHandleEvent = lastMotionEvent.obtain();
+			endDrag();
+		}
+		if ((actions & ACTION_TAKE_DRAG_FROM_CONTENT) != 0) {
+			velocityTracker = scrollableView.snatchVelocityTracker();
+			activePointerId = scrollableView.getActivePointerId();
+			needToHandleEvent = lastMotionEvent.obtain();
+			scrollableView.stopScroll();
+		}
+		StickyTrace.endSection();
 	}
 
 	private void toUndefined() {
@@ -707,27 +2250,12 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 		changeState(TouchesState.TO_STICKY, null);
 	}
 
-	private void fromFlingScrollable() {
-		mainContentView.stopFling();
-	}
-
-	private void fromFlingThis() {
-		stopFling();
-	}
-
-	private void fromTranslateToScrollable() {
-		clearEvents(interceptedEvents);
-	}
-
 	private void toFlingThis(float velocity) {
-		changeState(TouchesState.FLING_THIS, null);
-		stopAndFly((int) -velocity);
-
+		changeState(TouchesState.FLING_THIS, null, velocity);
 	}
 
 	private void toFlingScrollable(StickyContentView scrollableView, float velocity) {
-		changeState(TouchesState.FLING_SCROLLABLE, scrollableView);
-		scrollableView.startFling((int) -velocity);
+		changeState(TouchesState.FLING_SCROLLABLE, scrollableView, velocity);
 	}
 
 	private void toTranslateToScrollable(StickyContentView scrollableView) {
@@ -736,18 +2264,10 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	private void toRedirectToScrollable(StickyContentView scrollableView) {
 		changeState(TouchesState.REDIRECT_TO_SCROLLABLE, scrollableView);
-		velocityTracker = snatchVelocityTracker();
-		activePointerId = getActivePointerId();
-		needToHandleEvent = lastMotionEvent == null ? null : MotionEvent.obtain(lastMotionEvent);
-		endDrag();
 	}
 
 	private void toRedirectFromScrollable(StickyContentView scrollableView) {
 		changeState(TouchesState.REDIRECT_FROM_SCROLLABLE, scrollableView);
-		velocityTracker = scrollableView.snatchVelocityTracker();
-		activePointerId = scrollableView.getActivePointerId();
-		needToHandleEvent = lastMotionEvent == null ? null : MotionEvent.obtain(lastMotionEvent);
-		scrollableView.stopScroll();
 	}
 
 	private SavedState savedState;
@@ -808,17 +2328,47 @@ public class StickyScrollView extends ScrollViewEx implements StickyMainContentS
 
 	@Override
 	public void parallaxViewBy(View view, float multiplier) {
-		parallaxViewController.parallaxViewBy(view, multiplier);
+		addParallaxRegistration(new ParallaxRegistration(view, null, null, multiplier));
 	}
 
 	@Override
 	public void parallaxViewBy(View view, Transformer transformer, float multiplier) {
-		parallaxViewController.parallaxViewBy(view, transformer, multiplier);
+		addParallaxRegistration(new ParallaxRegistration(view, transformer, null, multiplier));
 	}
 
 	@Override
 	public void parallaxViewBackgroundBy(View view, Drawable drawable, float multiplier) {
-		parallaxViewController.parallaxViewBackgroundBy(view, drawable, multiplier);
+		addParallaxRegistration(new ParallaxRegistration(view, null, drawable, multiplier));
+	}
+
+	private void addParallaxRegistration(ParallaxRegistration registration) {
+		parallaxRegistrations.add(registration);
+		registration.register(getParallaxViewController());
+	}
+
+	private static final class ParallaxRegistration {
+		final View view;
+		final Transformer transformer;
+		final Drawable background;
+		final float multiplier;
+
+		ParallaxRegistration(View view, Transformer transformer, Drawable background,
+		                     float multiplier) {
+			this.view = view;
+			this.transformer = transformer;
+			this.background = background;
+			this.multiplier = multiplier;
+		}
+
+		void register(ParallaxViewController controller) {
+			if (background != null) {
+				controller.parallaxViewBackgroundBy(view, background, multiplier);
+			} else if (transformer != null) {
+				controller.parallaxViewBy(view, transformer, multiplier);
+			} else {
+				controller.parallaxViewBy(view, multiplier);
+			}
+		}
 	}
 
 }
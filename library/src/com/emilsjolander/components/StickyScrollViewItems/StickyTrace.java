@@ -0,0 +1,175 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.TimelineRecorder;
+
+import java.lang.reflect.Method;
+
+/**
+ * Optional trace sections and counters around the scrolling hot paths. When enabled they are
+ * emitted as system trace sections (API 18+) and counters (API 29+), visible in Systrace and
+ * Perfetto, and into a {@link TimelineRecorder} if one is set. When disabled each call is a
+ * single field check. Only used from the main thread.
+ */
+public final class StickyTrace {
+
+	static final String SECTION_COMPUTE_SCROLL = "ScrollViewEx#computeScroll";
+	static final String SECTION_FLING = "ScrollViewEx#fling";
+	static final String SECTION_SCROLL_CHANGED = "StickyScrollView#onScrollChanged";
+	static final String SECTION_HANDOFF = "StickyScrollView#handoff";
+	static final String SECTION_CHANGE_STATE = "StickyScrollView#changeState";
+
+	static final String COUNTER_SCROLL_Y = "StickyScrollView.scrollY";
+	static final String COUNTER_TOUCHES_STATE = "StickyScrollView.touchesState";
+	static final String COUNTER_FLING_VELOCITY = "ScrollViewEx.flingVelocity";
+
+	private static boolean enabled;
+	private static int depth;
+	private static TimelineRecorder timelineRecorder;
+	private static Method setCounterMethod;
+	private static boolean setCounterResolved;
+
+	/**
+	 * Reused arguments for Trace.setCounter, the boxed values of small counters and the last
+	 * value sent for each counter, so a counter costs no allocation unless its value changed to
+	 * one outside the boxed range.
+	 */
+	private static final int BOXED_VALUES = 1024;
+	private static final Object[] setCounterArgs = new Object[2];
+	private static final Long[] boxedValues = new Long[BOXED_VALUES];
+	private static final String[] systemCounterNames = new String[8];
+	private static final long[] systemCounterValues = new long[8];
+	private static int systemCounterCount;
+
+	private StickyTrace() {
+	}
+
+	/**
+	 * Turns tracing on or off for all sticky scroll views.
+	 */
+	public static void setEnabled(boolean enabled) {
+		StickyTrace.enabled = enabled;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Also records enabled sections and counters into the given timeline. Pass null to stop.
+	 */
+	public static void setTimelineRecorder(TimelineRecorder timelineRecorder) {
+		StickyTrace.timelineRecorder = timelineRecorder;
+	}
+
+	public static TimelineRecorder getTimelineRecorder() {
+		return timelineRecorder;
+	}
+
+	static void beginSection(String name) {
+		if (!enabled) {
+			return;
+		}
+		depth++;
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+			Trace.beginSection(name);
+		}
+		if (timelineRecorder != null) {
+			timelineRecorder.begin(System.nanoTime(), name);
+		}
+	}
+
+	/**
+	 * Ends the innermost section begun while enabled, so toggling tracing mid-section keeps the
+	 * sections balanced.
+	 */
+	static void endSection() {
+		if (depth == 0) {
+			return;
+		}
+		depth--;
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+			Trace.endSection();
+		}
+		if (timelineRecorder != null) {
+			timelineRecorder.end(System.nanoTime());
+		}
+	}
+
+	static void counter(String name, long value) {
+		if (!enabled) {
+			return;
+		}
+		if (Build.VERSION.SDK_INT >= 29) {
+			setSystemCounter(name, value);
+		}
+		if (timelineRecorder != null) {
+			timelineRecorder.counter(System.nanoTime(), name, value);
+		}
+	}
+
+	/**
+	 * Trace.setCounter is API 29, above the compile SDK, so it is looked up once by reflection.
+	 */
+	private static void setSystemCounter(String name, long value) {
+		if (!setCounterResolved) {
+			setCounterResolved = true;
+			try {
+				setCounterMethod = Trace.class.getMethod("setCounter", String.class, long.class);
+			} catch (NoSuchMethodException e) {
+				setCounterMethod = null;
+			}
+		}
+		if (setCounterMethod == null || !updateSystemCounter(name, value)) {
+			return;
+		}
+		setCounterArgs[0] = name;
+		setCounterArgs[1] = box(value);
+		try {
+			setCounterMethod.invoke(null, setCounterArgs);
+		} catch (Exception e) {
+			setCounterMethod = null;
+		}
+		setCounterArgs[1] = null;
+	}
+
+	/**
+	 * Records the value of a counter. Counter names are constants, so they are compared by
+	 * identity.
+	 *
+	 * @return false if the counter already has this value
+	 */
+	private static boolean updateSystemCounter(String name, long value) {
+		for (int i = 0; i < systemCounterCount; i++) {
+			if (systemCounterNames[i] == name) {
+				if (systemCounterValues[i] == value) {
+					return false;
+				}
+				systemCounterValues[i] = value;
+				return true;
+			}
+		}
+		if (systemCounterCount < systemCounterNames.length) {
+			systemCounterNames[systemCounterCount] = name;
+			systemCounterValues[systemCounterCount] = value;
+			systemCounterCount++;
+		}
+		return true;
+	}
+
+	private static Long box(long value) {
+		if (value < 0 || value >= BOXED_VALUES) {
+			return Long.valueOf(value);
+		}
+		final int index = (int) value;
+		Long boxed = boxedValues[index];
+		if (boxed == null) {
+			boxed = Long.valueOf(value);
+			boxedValues[index] = boxed;
+		}
+		return boxed;
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.webkit.WebView;
+
+import com.emilsjolander.components.StickyScrollViewItems.core.StickyHandoff;
+
+/**
+ * {@link WebView} usable as the content of a {@link StickyScrollView}. Handed over drags and
+ * flings use {@link WebView#scrollBy(int, int)} and {@link WebView#flingScroll(int, int)}.
+ */
+public class StickyWebView extends WebView implements StickyContentViewEx {
+
+	private final ContentHandoffHelper handoffHelper = new ContentHandoffHelper(this) {
+		@Override
+		void scrollContentBy(int dy) {
+			scrollBy(0, dy);
+		}
+
+		@Override
+		void flingContent(int velocityY) {
+			flingScroll(0, velocityY);
+		}
+
+		@Override
+		void stopContentFling() {
+			// A fling without velocity replaces the running one, View.scrollTo ignores a scroll
+			// to the current position and would leave it running.
+			flingScroll(0, 0);
+		}
+
+		@Override
+		int getContentScrollOffset() {
+			return getScrollY();
+		}
+
+		@Override
+		int getContentScrollRange() {
+			return StickyWebView.this.getScrollRange();
+		}
+	};
+
+	public StickyWebView(Context context) {
+		super(context);
+	}
+
+	public StickyWebView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public StickyWebView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		handoffHelper.trackTouch(ev);
+		return super.dispatchTouchEvent(ev);
+	}
+
+	@Override
+	protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+		super.onScrollChanged(l, t, oldl, oldt);
+		handoffHelper.onScrollChanged(t, oldt, StickyHandoff.NO_OFFSET, StickyHandoff.NO_OFFSET);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		handoffHelper.release();
+	}
+
+	@Override
+	public void setStickyMainContentScrollListener(StickyMainContentScrollListener stickyMainContentScrollListener) {
+		handoffHelper.setListener(stickyMainContentScrollListener);
+	}
+
+	@Override
+	public void scrollToTop() {
+		scrollTo(0, 0);
+	}
+
+	@Override
+	public void startScrollByEvents(VelocityTracker velocityTracker, MotionEvent prevEvent,
+	                                MotionEvent event, int pointerId) {
+		handoffHelper.startScrollByEvents(velocityTracker, prevEvent, event, pointerId);
+	}
+
+	@Override
+	public void startFling(int velocity) {
+		handoffHelper.fling(-velocity);
+	}
+
+	@Override
+	public boolean wheelScrollBy(int delta) {
+		return handoffHelper.wheelScrollBy(delta);
+	}
+
+	@Override
+	public void stopFling() {
+		handoffHelper.stopFling();
+	}
+
+	@Override
+	public void stopScroll() {
+		handoffHelper.stopScroll();
+	}
+
+	@Override
+	public boolean onTranslatedTouchEvent(MotionEvent event) {
+		return handoffHelper.onTranslatedTouchEvent(event) || onTouchEvent(event);
+	}
+
+	@Override
+	public VelocityTracker snatchVelocityTracker() {
+		return handoffHelper.snatchVelocityTracker();
+	}
+
+	@Override
+	public int getActivePointerId() {
+		return handoffHelper.getActivePointerId();
+	}
+
+	@Override
+	public int getScrollState() {
+		return handoffHelper.getScrollState();
+	}
+
+	@Override
+	public int getScrollRange() {
+		return Math.max(0, computeVerticalScrollRange() - computeVerticalScrollExtent());
+	}
+
+	@Override
+	public int getFlingFinalY() {
+		return handoffHelper.getFlingFinalY();
+	}
+
+	@Override
+	public int getContentScrollOffset() {
+		return handoffHelper.getContentScrollOffset();
+	}
+
+	@Override
+	public void scrollContentBy(int dy) {
+		handoffHelper.scrollContentBy(dy);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.support.v4.view.ViewPager;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Keeps the active content view of a {@link StickyScrollView} pointing at the
+ * {@link StickyContentView} of the current page of a {@link ViewPager}. The pages are only
+ * searched when the selected page changes or the pager settles.
+ */
+public class ViewPagerContentTracker implements ViewPager.OnPageChangeListener {
+
+	private final StickyScrollView stickyScrollView;
+	private final ViewPager viewPager;
+
+	public ViewPagerContentTracker(StickyScrollView stickyScrollView, ViewPager viewPager) {
+		this.stickyScrollView = stickyScrollView;
+		this.viewPager = viewPager;
+	}
+
+	/**
+	 * Creates a tracker, registers it with the pager and activates the content of the current
+	 * page.
+	 */
+	public static ViewPagerContentTracker attach(StickyScrollView stickyScrollView, ViewPager viewPager) {
+		ViewPagerContentTracker tracker = new ViewPagerContentTracker(stickyScrollView, viewPager);
+		viewPager.addOnPageChangeListener(tracker);
+		tracker.update();
+		return tracker;
+	}
+
+	public void detach() {
+		viewPager.removeOnPageChangeListener(this);
+		stickyScrollView.setActiveContentView(null);
+	}
+
+	@Override
+	public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+
+	}
+
+	@Override
+	public void onPageSelected(int position) {
+		update();
+	}
+
+	@Override
+	public void onPageScrollStateChanged(int state) {
+		if (state == ViewPager.SCROLL_STATE_IDLE) {
+			update();
+		}
+	}
+
+	/**
+	 * Activates the content view of the current page.
+	 */
+	public void update() {
+		View page = findCurrentPage();
+		stickyScrollView.setActiveContentView(page != null ? findContentView(page) : null);
+	}
+
+	private View findCurrentPage() {
+		// Pages are laid out next to each other, the current one starts at this offset.
+		final int pageLeft = viewPager.getPaddingLeft() + viewPager.getCurrentItem() *
+				(viewPager.getWidth() - viewPager.getPaddingLeft() - viewPager.getPaddingRight() +
+						viewPager.getPageMargin());
+		View closest = null;
+		int closestDistance = Integer.MAX_VALUE;
+		final int count = viewPager.getChildCount();
+		for (int i = 0; i < count; ++i) {
+			final View child = viewPager.getChildAt(i);
+			final ViewGroup.LayoutParams lp = child.getLayoutParams();
+			if (lp instanceof ViewPager.LayoutParams && ((ViewPager.LayoutParams) lp).isDecor) {
+				continue;
+			}
+			final int distance = Math.abs(child.getLeft() - pageLeft);
+			if (distance < closestDistance) {
+				closest = child;
+				closestDistance = distance;
+			}
+		}
+		return closest;
+	}
+
+	private static StickyContentView findContentView(View v) {
+		if (v instanceof StickyContentView) {
+			return (StickyContentView) v;
+		}
+		if (v instanceof ViewGroup) {
+			ViewGroup viewGroup = (ViewGroup) v;
+			final int count = viewGroup.getChildCount();
+			for (int i = 0; i < count; ++i) {
+				StickyContentView contentView = findContentView(viewGroup.getChildAt(i));
+				if (contentView != null) {
+					return contentView;
+				}
+			}
+		}
+		return null;
+	}
+
+}
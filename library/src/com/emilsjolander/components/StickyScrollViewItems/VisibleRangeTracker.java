@@ -0,0 +1,102 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Keeps track of the range of children of a container that intersect a vertical window. Child
+ * boundaries are cached on layout and the first and last visible indices are moved from their
+ * previous values, so an update costs as much as the number of children that entered or left
+ * the window. Children are expected to be stacked vertically, as in a vertical LinearLayout.
+ */
+final class VisibleRangeTracker {
+
+	private final OnChildVisibilityChangedListener listener;
+
+	private int[] tops = new int[0];
+	private int[] bottoms = new int[0];
+	private int count;
+
+	private int first = 0;
+	private int last = -1;
+
+	VisibleRangeTracker(OnChildVisibilityChangedListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Caches the boundaries of the container's children. If the number of children changed, the
+	 * previously visible children are reported as gone before the new boundaries are used.
+	 */
+	void setBounds(View container) {
+		final int newCount = container instanceof ViewGroup ? ((ViewGroup) container).getChildCount() : 0;
+		if (newCount != count) {
+			dispatchRange(first, last, false);
+			first = 0;
+			last = -1;
+		}
+		if (tops.length < newCount) {
+			tops = new int[newCount];
+			bottoms = new int[newCount];
+		}
+		count = newCount;
+		int maxBottom = Integer.MIN_VALUE;
+		for (int i = 0; i < count; ++i) {
+			final View child = ((ViewGroup) container).getChildAt(i);
+			tops[i] = child.getTop();
+			// Keep the bottoms sorted even if a child is shorter than the one above it.
+			maxBottom = Math.max(maxBottom, child.getBottom());
+			bottoms[i] = maxBottom;
+		}
+	}
+
+	/**
+	 * Moves the visible range to the window [top, bottom) given in container coordinates.
+	 */
+	void update(int top, int bottom) {
+		int newFirst = Math.min(first, count);
+		while (newFirst < count && bottoms[newFirst] <= top) {
+			++newFirst;
+		}
+		while (newFirst > 0 && bottoms[newFirst - 1] > top) {
+			--newFirst;
+		}
+		int newLast = Math.min(last, count - 1);
+		while (newLast + 1 < count && tops[newLast + 1] < bottom) {
+			++newLast;
+		}
+		while (newLast >= 0 && tops[newLast] >= bottom) {
+			--newLast;
+		}
+
+		if (newFirst == first && newLast == last) {
+			return;
+		}
+		final int oldFirst = first;
+		final int oldLast = last;
+		first = newFirst;
+		last = newLast;
+
+		// Children that left at either end of the old range.
+		dispatchRange(oldFirst, Math.min(oldLast, newFirst - 1), false);
+		dispatchRange(Math.max(oldFirst, newLast + 1), oldLast, false);
+		// Children that entered at either end of the new range.
+		dispatchRange(newFirst, Math.min(newLast, oldFirst - 1), true);
+		dispatchRange(Math.max(newFirst, oldLast + 1), newLast, true);
+	}
+
+	int getFirstVisibleIndex() {
+		return first;
+	}
+
+	int getLastVisibleIndex() {
+		return last;
+	}
+
+	private void dispatchRange(int from, int to, boolean visible) {
+		for (int i = from; i <= to; ++i) {
+			listener.onChildVisibilityChanged(i, visible);
+		}
+	}
+
+}
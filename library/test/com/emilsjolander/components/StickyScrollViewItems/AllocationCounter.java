@@ -0,0 +1,29 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated on the current thread, using the HotSpot thread allocation counter
+ * the JVM running the tests provides. Android's own Debug allocation counting does nothing off
+ * device.
+ */
+final class AllocationCounter {
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	static {
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private AllocationCounter() {
+	}
+
+	/**
+	 * @return the bytes allocated on the current thread so far
+	 */
+	static long getAllocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
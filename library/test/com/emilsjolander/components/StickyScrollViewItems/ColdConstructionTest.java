@@ -0,0 +1,113 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+
+import uk.co.chrisjenx.paralloid.ParallaxViewController;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cold construction of many sticky scroll views, as when inflating a long list of layouts, with
+ * the deferred setup against the setup construction used to do eagerly.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ColdConstructionTest {
+
+	private static final int VIEWS = 500;
+	private static final int WARM_UP_VIEWS = 50;
+
+	@Test
+	public void lazySetupConstructsWithLessWork() {
+		final Context context = RuntimeEnvironment.application;
+		construct(context, WARM_UP_VIEWS, false);
+		construct(context, WARM_UP_VIEWS, true);
+
+		final StickyScrollView[] views = new StickyScrollView[VIEWS];
+		long start = System.nanoTime();
+		final long lazyBytes = construct(context, views, false);
+		final long lazyNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		final long eagerBytes = construct(context, views, true);
+		final long eagerNanos = System.nanoTime() - start;
+
+		System.out.println("Constructing " + VIEWS + " views: lazy " + lazyBytes + " bytes, "
+				+ lazyNanos / 1000 + " us; eager " + eagerBytes + " bytes, " + eagerNanos / 1000 + " us");
+		// Time on a shared test machine is only reported, allocations are deterministic enough.
+		assertTrue(lazyBytes < eagerBytes);
+	}
+
+	@Test
+	public void configurationIsSharedPerContext() {
+		final Context context = RuntimeEnvironment.application;
+		final Context other = new ContextWrapper(context);
+		assertSame(ScrollConfiguration.get(context), ScrollConfiguration.get(context));
+		assertNotSame(ScrollConfiguration.get(context), ScrollConfiguration.get(other));
+	}
+
+	@Test
+	public void configurationDoesNotKeepItsContext() {
+		final WeakReference<Context> context = constructInWrappedContext();
+		for (int i = 0; i < 10 && context.get() != null; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		assertNull(context.get());
+	}
+
+	private static WeakReference<Context> constructInWrappedContext() {
+		final Context context = new ContextWrapper(RuntimeEnvironment.application);
+		new StickyScrollView(context).getAnimationDuration();
+		return new WeakReference<Context>(context);
+	}
+
+	private static long construct(Context context, int count, boolean eager) {
+		return construct(context, new StickyScrollView[count], eager);
+	}
+
+	/**
+	 * @return bytes allocated while constructing a view for each slot of the array
+	 */
+	private static long construct(Context context, StickyScrollView[] views, boolean eager) {
+		final long start = AllocationCounter.getAllocatedBytes();
+		for (int i = 0; i < views.length; i++) {
+			views[i] = new StickyScrollView(context);
+			if (eager) {
+				setUpEagerly(views[i]);
+			}
+		}
+		return AllocationCounter.getAllocatedBytes() - start;
+	}
+
+	/**
+	 * What construction did before the setup was deferred: the parallax controller, the queue of
+	 * intercepted events and the configuration and resource reads, for every view.
+	 */
+	private static void setUpEagerly(StickyScrollView view) {
+		view.parallaxViewController = ParallaxViewController.wrap(view);
+		new ArrayDeque<MotionEvent>().clear();
+		final ViewConfiguration configuration = ViewConfiguration.get(view.getContext());
+		configuration.getScaledTouchSlop();
+		configuration.getScaledMinimumFlingVelocity();
+		configuration.getScaledMaximumFlingVelocity();
+		configuration.getScaledOverscrollDistance();
+		configuration.getScaledOverflingDistance();
+		view.getResources().getInteger(android.R.integer.config_mediumAnimTime);
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ContentReplacementTest {
+
+	private StickyTestViews views;
+
+	@Before
+	public void setUp() {
+		views = new StickyTestViews(RuntimeEnvironment.application);
+	}
+
+	@Test
+	public void replacedContentIsCollectable() {
+		final StickyScrollView outer = views.outer;
+		WeakReference<View> oldContent = useContentAndReplace();
+		// Only the outer view stays reachable, anything still holding the old tree is it.
+		views = null;
+		for (int i = 0; i < 10 && oldContent.get() != null; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		assertNull(oldContent.get());
+		assertEquals(1, outer.getChildCount());
+	}
+
+	@Test
+	public void parallaxOutsideContentSurvivesReplacement() {
+		View background = new View(RuntimeEnvironment.application);
+		views.outer.parallaxViewBy(background, 0.5f);
+		views.outer.parallaxViewBy(views.header, 0.5f);
+
+		replaceContent();
+
+		assertTrue(views.outer.isParallaxRegistered(background));
+		assertFalse(views.outer.isParallaxRegistered(views.header));
+	}
+
+	/**
+	 * Exercises the old content, parallax, stickiness and a handoff to its inner view, then
+	 * replaces it and returns a weak reference to it. Kept separate so no local in the test
+	 * method still refers to the old tree.
+	 */
+	private WeakReference<View> useContentAndReplace() {
+		views.outer.parallaxViewBy(views.header, 0.5f);
+		views.outer.setActiveContentView(views.inner);
+		views.drag(790, 10, 40);
+		views.frames(10);
+		WeakReference<View> oldContent = new WeakReference<View>(views.content);
+		replaceContent();
+		return oldContent;
+	}
+
+	private void replaceContent() {
+		views.outer.removeAllViews();
+		FrameLayout replacement = new FrameLayout(RuntimeEnvironment.application);
+		replacement.addView(new View(RuntimeEnvironment.application),
+				new FrameLayout.LayoutParams(StickyTestViews.WIDTH, 2 * StickyTestViews.HEIGHT));
+		views.outer.addView(replacement);
+		views.layout();
+		views.frames(2);
+	}
+
+}
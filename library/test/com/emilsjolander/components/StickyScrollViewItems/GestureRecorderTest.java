@@ -0,0 +1,86 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class GestureRecorderTest {
+
+	private byte[] recordDrag(float fromY, float toY) {
+		StickyTestViews views = new StickyTestViews(RuntimeEnvironment.application);
+		GestureRecorder recorder = new GestureRecorder();
+		views.outer.setGestureTraceListener(recorder);
+		views.drag(fromY, toY, 20);
+		views.outer.setGestureTraceListener(null);
+		return recorder.toByteArray();
+	}
+
+	@Test
+	public void replayReproducesOuterDrag() {
+		StickyTestViews recorded = new StickyTestViews(RuntimeEnvironment.application);
+		GestureRecorder recorder = new GestureRecorder();
+		recorded.outer.setGestureTraceListener(recorder);
+		recorded.drag(700, 500, 20);
+
+		StickyTestViews replayed = new StickyTestViews(RuntimeEnvironment.application);
+		GestureReplayer.ReplayResult result = GestureReplayer.replay(recorder.toByteArray(),
+				replayed.outer);
+
+		assertEquals(22, result.eventCount);
+		assertTrue(result.finalScrollY > 0);
+		assertEquals(recorded.outer.getScrollY(), result.finalScrollY);
+	}
+
+	@Test
+	public void replayIsDeterministic() {
+		// Drags far enough to reach the end of the outer view and hand over to the content.
+		byte[] trace = recordDrag(780, 20);
+
+		GestureReplayer.ReplayResult first = GestureReplayer.replay(trace,
+				new StickyTestViews(RuntimeEnvironment.application).outer);
+		GestureReplayer.ReplayResult second = GestureReplayer.replay(trace,
+				new StickyTestViews(RuntimeEnvironment.application).outer);
+
+		assertEquals(first.finalScrollY, second.finalScrollY);
+		assertArrayEquals(first.getStateTransitions(), second.getStateTransitions());
+		assertTrue(Arrays.toString(first.getStateTransitions()),
+				first.getStateTransitions().length > 0);
+	}
+
+	@Test
+	public void replayRestoresPreviousListener() {
+		byte[] trace = recordDrag(700, 600);
+		StickyTestViews views = new StickyTestViews(RuntimeEnvironment.application);
+		GestureRecorder previous = new GestureRecorder();
+		views.outer.setGestureTraceListener(previous);
+
+		GestureReplayer.replay(trace, views.outer);
+
+		assertEquals(previous, views.outer.getGestureTraceListener());
+	}
+
+	@Test
+	public void clearKeepsHeaderOnly() {
+		GestureRecorder recorder = new GestureRecorder();
+		recorder.onScroll(10, 0);
+		recorder.clear();
+		assertEquals(8, recorder.getSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void replayRejectsForeignData() {
+		GestureReplayer.replay(new byte[]{1, 2, 3, 4, 5, 6, 7, 8},
+				new StickyTestViews(RuntimeEnvironment.application).outer);
+	}
+
+}
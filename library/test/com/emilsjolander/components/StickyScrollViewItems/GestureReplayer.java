@@ -0,0 +1,181 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Replays a trace written by {@link GestureRecorder} into a view, so gestures recorded on a
+ * device become regression tests.
+ */
+final class GestureReplayer {
+
+	private GestureReplayer() {
+	}
+
+	/**
+	 * Dispatches the touch events of a trace to a view, in order and without waiting between
+	 * them. Flings started by the replayed gesture continue on the view's own frame clock.
+	 *
+	 * @param trace  a trace produced by {@link GestureRecorder#toByteArray()}
+	 * @param target the view to dispatch to, usually a {@link StickyScrollView}
+	 * @return the outcome of the replay
+	 */
+	static ReplayResult replay(byte[] trace, View target) {
+		final ByteBuffer in = ByteBuffer.wrap(trace);
+		if (in.getInt() != GestureRecorder.MAGIC || in.getInt() != GestureRecorder.VERSION) {
+			throw new IllegalArgumentException("Not a gesture trace");
+		}
+
+		GestureRecorder outcome = new GestureRecorder(false);
+		StickyScrollView stickyScrollView = target instanceof StickyScrollView ?
+				(StickyScrollView) target : null;
+		GestureTraceListener previousListener = null;
+		if (stickyScrollView != null) {
+			previousListener = stickyScrollView.getGestureTraceListener();
+			stickyScrollView.setGestureTraceListener(outcome);
+		}
+
+		ReplayResult result = new ReplayResult();
+		result.eventNanos = new long[countMotionEvents(trace)];
+
+		MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+		MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+		long timeShift = -1;
+
+		while (in.hasRemaining()) {
+			final byte kind = in.get();
+			final long time = in.getLong();
+			if (kind != GestureRecorder.RECORD_MOTION) {
+				in.getInt();
+				in.getInt();
+				continue;
+			}
+			final long downTime = in.getLong();
+			final int action = in.getInt();
+			final float offsetX = in.getFloat();
+			final float offsetY = in.getFloat();
+			final int pointerCount = in.getInt();
+			if (properties.length < pointerCount) {
+				properties = new MotionEvent.PointerProperties[pointerCount];
+				coords = new MotionEvent.PointerCoords[pointerCount];
+				for (int i = 0; i < pointerCount; ++i) {
+					properties[i] = new MotionEvent.PointerProperties();
+					coords[i] = new MotionEvent.PointerCoords();
+				}
+			}
+			for (int i = 0; i < pointerCount; ++i) {
+				properties[i].clear();
+				properties[i].id = in.getInt();
+				properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+				coords[i].clear();
+				coords[i].x = in.getFloat() + offsetX;
+				coords[i].y = in.getFloat() + offsetY;
+				coords[i].pressure = 1f;
+				coords[i].size = 1f;
+			}
+			if (timeShift == -1) {
+				timeShift = SystemClock.uptimeMillis() - time;
+			}
+			MotionEvent event = MotionEvent.obtain(downTime + timeShift, time + timeShift, action,
+					pointerCount, properties, coords, 0, 0, 1f, 1f, 0, 0,
+					InputDevice.SOURCE_TOUCHSCREEN, 0);
+			event.offsetLocation(-offsetX, -offsetY);
+
+			final long start = System.nanoTime();
+			final long allocated = AllocationCounter.getAllocatedBytes();
+			target.dispatchTouchEvent(event);
+			result.allocatedBytes += AllocationCounter.getAllocatedBytes() - allocated;
+			result.eventNanos[result.eventCount++] = System.nanoTime() - start;
+			event.recycle();
+		}
+
+		result.finalScrollY = target.getScrollY();
+		result.outcome = outcome.toByteArray();
+		if (stickyScrollView != null) {
+			stickyScrollView.setGestureTraceListener(previousListener);
+		}
+		return result;
+	}
+
+	private static int countMotionEvents(byte[] trace) {
+		final ByteBuffer in = ByteBuffer.wrap(trace);
+		in.position(8);
+		int count = 0;
+		while (in.hasRemaining()) {
+			final byte kind = in.get();
+			in.getLong();
+			if (kind == GestureRecorder.RECORD_MOTION) {
+				in.position(in.position() + 8 + 4 + 8);
+				final int pointerCount = in.getInt();
+				in.position(in.position() + pointerCount * 12);
+				++count;
+			} else {
+				in.position(in.position() + 8);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Outcome of {@link #replay(byte[], View)}.
+	 */
+	static final class ReplayResult {
+		/**
+		 * Scroll position of the target once all events were dispatched.
+		 */
+		public int finalScrollY;
+
+		public int eventCount;
+
+		/**
+		 * Time spent dispatching each event, in nanoseconds.
+		 */
+		public long[] eventNanos;
+
+		/**
+		 * Bytes allocated on the replaying thread while the events were dispatched, not counting
+		 * the creation of the events themselves. See {@link AllocationCounter}.
+		 */
+		public long allocatedBytes;
+
+		/**
+		 * Scrolls, flings and state transitions recorded while the events were dispatched, in the
+		 * trace format. Empty unless the target is a {@link StickyScrollView}.
+		 */
+		public byte[] outcome;
+
+		/**
+		 * @return the {@link StickyScrollView.TouchesState} transitions of the replay as pairs of
+		 * ordinals, from and to
+		 */
+		public int[] getStateTransitions() {
+			final ByteBuffer in = ByteBuffer.wrap(outcome);
+			in.position(8);
+			int[] transitions = new int[0];
+			int count = 0;
+			while (in.hasRemaining()) {
+				final byte kind = in.get();
+				in.getLong();
+				final int from = in.getInt();
+				final int to = in.getInt();
+				if (kind == GestureRecorder.RECORD_STATE) {
+					if (count + 2 > transitions.length) {
+						int[] grown = new int[Math.max(8, transitions.length * 2)];
+						System.arraycopy(transitions, 0, grown, 0, count);
+						transitions = grown;
+					}
+					transitions[count++] = from;
+					transitions[count++] = to;
+				}
+			}
+			int[] result = new int[count];
+			System.arraycopy(transitions, 0, result, 0, count);
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A {@link StickyHorizontalScrollView} with a sticky first column, a header column and a
+ * horizontal {@link ContentScrollView}, handing drags and flings to the content and back.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class HorizontalHandoffTest {
+
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int STICKY_WIDTH = 100;
+	private static final int HEADER_WIDTH = 300;
+	private static final int INNER_CONTENT_WIDTH = 4000;
+	private static final int STICKY_ID = 1;
+	private static final int INNER_WIDTH = WIDTH - STICKY_WIDTH;
+	private static final int RANGE = STICKY_WIDTH + HEADER_WIDTH + INNER_WIDTH - WIDTH;
+
+	private static final long FRAME_MILLIS = 16;
+
+	private StickyHorizontalScrollView outer;
+	private ContentScrollView inner;
+	private View sticky;
+
+	@Before
+	public void setUp() {
+		final Context context = RuntimeEnvironment.application;
+		outer = new StickyHorizontalScrollView(context);
+		final LinearLayout content = new LinearLayout(context);
+		content.setOrientation(LinearLayout.HORIZONTAL);
+		sticky = new View(context);
+		sticky.setId(STICKY_ID);
+		inner = new ContentScrollView(context);
+		inner.setOrientation(ScrollViewEx.HORIZONTAL);
+
+		// Wrapped, as a plain view measured with an unspecified width would be 0 wide.
+		final LinearLayout innerContent = new LinearLayout(context);
+		innerContent.addView(new View(context), new LinearLayout.LayoutParams(INNER_CONTENT_WIDTH, HEIGHT));
+		inner.addView(innerContent);
+		content.addView(sticky, new LinearLayout.LayoutParams(STICKY_WIDTH, HEIGHT));
+		content.addView(new View(context), new LinearLayout.LayoutParams(HEADER_WIDTH, HEIGHT));
+		content.addView(inner, new LinearLayout.LayoutParams(INNER_WIDTH, HEIGHT));
+		outer.addView(content);
+		outer.setStickyViewId(STICKY_ID);
+		outer.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+				View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+		outer.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	@Test
+	public void dragPastTheEndContinuesInTheContent() {
+		drag(470, 10, 10);
+
+		assertEquals(RANGE, outer.getScrollX());
+		assertTrue(inner.getScrollX() > 0);
+		assertEquals(RANGE, sticky.getTranslationX(), 0);
+	}
+
+	@Test
+	public void flingReachingTheEndContinuesInTheContent() {
+		outer.fling(8000);
+		frames(60);
+
+		assertEquals(RANGE, outer.getScrollX());
+		assertTrue(inner.getScrollX() > 0);
+	}
+
+	@Test
+	public void dragBackFromTheContentReturnsToThisView() {
+		outer.scrollTo(RANGE, 0);
+		inner.scrollTo(100, 0);
+
+		// Starts over the content, which is 100 pixels into its range.
+		drag(200, 470, 10);
+
+		assertEquals(0, inner.getScrollX());
+		assertTrue(outer.getScrollX() < RANGE);
+	}
+
+	/**
+	 * Drags through the middle of the view, one move per frame.
+	 */
+	private void drag(float fromX, float toX, int moves) {
+		final long downTime = SystemClock.uptimeMillis();
+		final float y = HEIGHT / 2;
+		dispatch(MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, fromX, y, 0));
+		for (int i = 1; i <= moves; i++) {
+			dispatch(MotionEvent.obtain(downTime, downTime + i * FRAME_MILLIS,
+					MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / moves, y, 0));
+			frames(1);
+		}
+		dispatch(MotionEvent.obtain(downTime, downTime + moves * FRAME_MILLIS,
+				MotionEvent.ACTION_UP, toX, y, 0));
+	}
+
+	private void dispatch(MotionEvent event) {
+		outer.dispatchTouchEvent(event);
+		event.recycle();
+	}
+
+	private void frames(int count) {
+		for (int i = 0; i < count; i++) {
+			ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+			outer.computeScroll();
+			inner.computeScroll();
+		}
+	}
+
+}
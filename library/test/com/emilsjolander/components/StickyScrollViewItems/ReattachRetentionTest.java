@@ -0,0 +1,101 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Attaches the same sticky scroll view thousands of times, each time under a new parent, with a
+ * drag handed to the inner view, a running hide animation and a running smooth scroll when it is
+ * detached. Whatever the view failed to release on detach piles up across the cycles.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ReattachRetentionTest {
+
+	private static final int CYCLES = 2000;
+	private static final int WARM_UP_CYCLES = 100;
+	private static final long MAX_RETAINED_BYTES = 1024 * 1024;
+
+	private FrameLayout root;
+	private StickyTestViews views;
+
+	@Before
+	public void setUp() {
+		final Activity activity = Robolectric.buildActivity(Activity.class).create().start().resume()
+				.visible().get();
+		root = new FrameLayout(activity);
+		activity.setContentView(root);
+		views = new StickyTestViews(activity);
+	}
+
+	@Test
+	public void reattachingRetainsNothingPerCycle() {
+		for (int i = 0; i < WARM_UP_CYCLES; i++) {
+			attachUseAndDetach();
+		}
+		final long retainedBefore = getRetainedBytes();
+
+		@SuppressWarnings("unchecked")
+		final WeakReference<View>[] parents = new WeakReference[CYCLES];
+		for (int i = 0; i < CYCLES; i++) {
+			parents[i] = attachUseAndDetach();
+		}
+		final long retained = getRetainedBytes() - retainedBefore;
+
+		int reachable = 0;
+		for (WeakReference<View> parent : parents) {
+			if (parent.get() != null) {
+				reachable++;
+			}
+		}
+		assertEquals(0, reachable);
+		assertTrue("retained " + retained + " bytes over " + CYCLES + " cycles",
+				retained < MAX_RETAINED_BYTES);
+		assertNull(views.outer.getParent());
+	}
+
+	/**
+	 * @return a weak reference to the parent the view was attached under
+	 */
+	private WeakReference<View> attachUseAndDetach() {
+		final FrameLayout parent = new FrameLayout(root.getContext());
+		root.addView(parent);
+		parent.addView(views.outer, new FrameLayout.LayoutParams(StickyTestViews.WIDTH,
+				StickyTestViews.HEIGHT));
+		views.layout();
+
+		// Sticks the header and hands the rest of the drag to the inner view.
+		views.drag(790, 10, 10);
+		views.outer.showSticky(false);
+		views.outer.scrollToContentOffset(0, true);
+		views.frames(2);
+
+		parent.removeView(views.outer);
+		root.removeView(parent);
+		return new WeakReference<View>(parent);
+	}
+
+	private static long getRetainedBytes() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			System.runFinalization();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
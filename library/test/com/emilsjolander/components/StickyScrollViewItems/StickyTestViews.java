@@ -0,0 +1,119 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link StickyScrollView} with a header, a sticky bar and a {@link ContentScrollView} below it,
+ * laid out at a fixed size, plus helpers to drive gestures and frames through it.
+ */
+final class StickyTestViews {
+
+	static final int WIDTH = 480;
+	static final int HEIGHT = 800;
+	static final int HEADER_HEIGHT = 600;
+	static final int STICKY_HEIGHT = 100;
+	static final int INNER_CONTENT_HEIGHT = 4000;
+	static final int STICKY_ID = 1;
+
+	static final long FRAME_MILLIS = 16;
+
+	final StickyScrollView outer;
+	final LinearLayout content;
+	final View header;
+	final View sticky;
+	final ContentScrollView inner;
+	final View innerContent;
+
+	StickyTestViews(Context context) {
+		outer = new StickyScrollView(context);
+		content = new LinearLayout(context);
+		content.setOrientation(LinearLayout.VERTICAL);
+		header = new View(context);
+		sticky = new View(context);
+		sticky.setId(STICKY_ID);
+		inner = new ContentScrollView(context);
+		innerContent = new View(context);
+
+		inner.addView(innerContent, new LinearLayout.LayoutParams(WIDTH, INNER_CONTENT_HEIGHT));
+		content.addView(header, new LinearLayout.LayoutParams(WIDTH, HEADER_HEIGHT));
+		content.addView(sticky, new LinearLayout.LayoutParams(WIDTH, STICKY_HEIGHT));
+		content.addView(inner, new LinearLayout.LayoutParams(WIDTH, HEIGHT - STICKY_HEIGHT));
+		outer.addView(content);
+		outer.setStickyViewId(STICKY_ID);
+		layout();
+	}
+
+	void layout() {
+		outer.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+				View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+		outer.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	/**
+	 * Builds a vertical drag through the middle of the view, one event per frame, starting now.
+	 * The last event is the up event.
+	 */
+	static MotionEvent[] buildDrag(float fromY, float toY, int moves) {
+		final MotionEvent[] events = new MotionEvent[moves + 2];
+		final long downTime = SystemClock.uptimeMillis();
+		final float x = WIDTH / 2;
+		events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, fromY, 0);
+		for (int i = 1; i <= moves; i++) {
+			events[i] = MotionEvent.obtain(downTime, downTime + i * FRAME_MILLIS,
+					MotionEvent.ACTION_MOVE, x, fromY + (toY - fromY) * i / moves, 0);
+		}
+		events[moves + 1] = MotionEvent.obtain(downTime, downTime + moves * FRAME_MILLIS,
+				MotionEvent.ACTION_UP, x, toY, 0);
+		return events;
+	}
+
+	/**
+	 * Dispatches a drag built by {@link #buildDrag(float, float, int)}, advancing the clock by a
+	 * frame between events.
+	 */
+	void drag(MotionEvent[] events) {
+		for (int i = 0; i < events.length; i++) {
+			outer.dispatchTouchEvent(events[i]);
+			if (i > 0 && i < events.length - 1) {
+				frame();
+			}
+		}
+	}
+
+	void drag(float fromY, float toY, int moves) {
+		final MotionEvent[] events = buildDrag(fromY, toY, moves);
+		drag(events);
+		recycle(events);
+	}
+
+	/**
+	 * Advances the clock by a frame, runs what was posted for it and computes both scrollers,
+	 * like a draw pass would.
+	 */
+	void frame() {
+		ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+		outer.computeScroll();
+		inner.computeScroll();
+	}
+
+	void frames(int count) {
+		for (int i = 0; i < count; i++) {
+			frame();
+		}
+	}
+
+	static void recycle(MotionEvent[] events) {
+		for (MotionEvent event : events) {
+			event.recycle();
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.emilsjolander.components.StickyScrollViewItems;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives drags, flings and handoffs between the outer and the inner scroll view and fails if a
+ * steady-state frame allocates. Every gesture is run once to create lazily allocated state, then
+ * again from the same starting point with each frame measured. The down event and the move that
+ * starts the drag are not measured, nor is the work the test itself does between frames.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ZeroAllocationTest {
+
+	private static final int FLING_FRAMES = 90;
+
+	private StickyTestViews views;
+
+	@Before
+	public void setUp() {
+		views = new StickyTestViews(RuntimeEnvironment.application);
+		// Scroll bar fading posts through the test scheduler, which allocates on its own.
+		views.outer.setVerticalScrollBarEnabled(false);
+		views.inner.setVerticalScrollBarEnabled(false);
+	}
+
+	@Test
+	public void outerDragAllocatesNothing() {
+		assertGestureAllocatesNothing(0, 0, 700, 400, 20, 0);
+		assertTrue(views.outer.getScrollY() > 0);
+	}
+
+	@Test
+	public void outerFlingAllocatesNothing() {
+		assertGestureAllocatesNothing(0, 0, 700, 550, 4, FLING_FRAMES);
+	}
+
+	@Test
+	public void dragHandoffFromOuterToInnerAllocatesNothing() {
+		assertGestureAllocatesNothing(0, 0, 790, 10, 40, 0);
+		assertEquals(views.outer.getScrollRange(), views.outer.getScrollY());
+		assertTrue(views.inner.getScrollY() > 0);
+	}
+
+	@Test
+	public void flingHandoffFromOuterToInnerAllocatesNothing() {
+		assertGestureAllocatesNothing(0, 0, 750, 150, 4, FLING_FRAMES);
+		assertTrue(views.inner.getScrollY() > 0);
+	}
+
+	@Test
+	public void dragHandoffFromInnerToOuterAllocatesNothing() {
+		final int outerEnd = views.outer.getScrollRange();
+		assertGestureAllocatesNothing(outerEnd, 200, 150, 790, 40, 0);
+		assertEquals(0, views.inner.getScrollY());
+		assertTrue(views.outer.getScrollY() < outerEnd);
+	}
+
+	@Test
+	public void flingHandoffFromInnerToOuterAllocatesNothing() {
+		assertGestureAllocatesNothing(views.outer.getScrollRange(), 200, 150, 700, 4, FLING_FRAMES);
+		assertEquals(0, views.inner.getScrollY());
+	}
+
+	@Test
+	public void syncInnerScrollablesAllocatesNothing() {
+		views.outer.syncInnerScrollables();
+		final long before = AllocationCounter.getAllocatedBytes();
+		views.outer.syncInnerScrollables();
+		assertEquals(0, AllocationCounter.getAllocatedBytes() - before);
+	}
+
+	private void assertGestureAllocatesNothing(int outerScroll, int innerScroll, float fromY,
+	                                           float toY, int moves, int flingFrames) {
+		runGesture(outerScroll, innerScroll, fromY, toY, moves, flingFrames, false);
+		runGesture(outerScroll, innerScroll, fromY, toY, moves, flingFrames, true);
+	}
+
+	private void runGesture(int outerScroll, int innerScroll, float fromY, float toY, int moves,
+	                        int flingFrames, boolean measure) {
+		reset(outerScroll, innerScroll);
+		final MotionEvent[] events = StickyTestViews.buildDrag(fromY, toY, moves);
+		for (int i = 0; i < events.length; i++) {
+			if (i > 0) {
+				advanceFrame();
+			}
+			final long before = AllocationCounter.getAllocatedBytes();
+			views.outer.dispatchTouchEvent(events[i]);
+			computeScroll();
+			final long allocated = AllocationCounter.getAllocatedBytes() - before;
+			// The down, the move crossing the touch slop and the up are not steady state.
+			if (measure && i > 1 && i < events.length - 1 && allocated != 0) {
+				assertEquals("bytes allocated by move " + i, 0, allocated);
+			}
+		}
+		StickyTestViews.recycle(events);
+		for (int i = 0; i < flingFrames; i++) {
+			advanceFrame();
+			final long before = AllocationCounter.getAllocatedBytes();
+			computeScroll();
+			final long allocated = AllocationCounter.getAllocatedBytes() - before;
+			if (measure && allocated != 0) {
+				assertEquals("bytes allocated by fling frame " + i, 0, allocated);
+			}
+		}
+	}
+
+	private void reset(int outerScroll, int innerScroll) {
+		views.outer.stopFling();
+		views.inner.stopFling();
+		views.outer.scrollToTop();
+		views.outer.scrollTo(0, outerScroll);
+		views.inner.scrollTo(0, innerScroll);
+		ShadowLooper.idleMainLooper(1, TimeUnit.SECONDS);
+	}
+
+	private static void advanceFrame() {
+		ShadowLooper.idleMainLooper(StickyTestViews.FRAME_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	private void computeScroll() {
+		views.outer.computeScroll();
+		views.inner.computeScroll();
+	}
+
+}